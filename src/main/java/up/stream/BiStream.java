@@ -1,5 +1,7 @@
 package up.stream;
 
+import java.util.Comparator;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.BiConsumer;
@@ -39,6 +41,51 @@ public abstract class BiStream<T, U> {
      */
     protected abstract BiStream<T, U> copy();
 
+    /**
+     * Skips the next {@code count} pairs of elements in this stream.
+     *
+     * <p>The default implementation computes and discards
+     * the pairs. Streams which can skip pairs without
+     * computing them should override this method.</p>
+     *
+     * @param count The number of pairs to skip.
+     * @return The number of skipped pairs. It is less
+     * than {@code count} only if this stream has ended.
+     */
+    protected long skip(final long count) {
+        long skipped = 0;
+        while (skipped < count && next().isPresent()) {
+            ++skipped;
+        }
+        return skipped;
+    }
+
+    /**
+     * Releases the resources held by this stream and
+     * the streams it pulls elements from.
+     *
+     * <p>Terminal operations close the stream when they finish,
+     * including when they finish before this stream has ended.
+     * Streams which pull elements from other streams must close
+     * them. Closing a stream more than once has no effect.</p>
+     *
+     * <p>The default implementation does nothing.</p>
+     */
+    protected void close() {
+        // No resources
+    }
+
+    // The number of pairs left if it is known without
+    // pulling them, -1 otherwise. Used for presizing and skipping
+    long exactSize() {
+        return -1;
+    }
+
+    // Profiled streams return the counters of their stage
+    Profiler.Counters counters() {
+        return null;
+    }
+
 
 
     // Intermediate Operations
@@ -61,7 +108,7 @@ public abstract class BiStream<T, U> {
      * @throws NullPointerException If the mapper is {@code null}.
      */
     public <R, S> BiStream<R, S> biMap(final BiFunction<? super T, ? super U, ? extends Pair<R, S>> mapper) {
-        return new BiStreamBiMap<>(this, Objects.requireNonNull(mapper));
+        return Profiler.track(this, new BiStreamBiMap<>(this, Objects.requireNonNull(mapper)), "biMap");
     }
 
     /**
@@ -80,7 +127,51 @@ public abstract class BiStream<T, U> {
      * @throws NullPointerException if the mapper is {@code null}.
      */
     public <R> Stream<R> map(final BiFunction<? super T, ? super U, ? extends R> mapper) {
-        return new BiStreamMap<>(this, Objects.requireNonNull(mapper));
+        return Profiler.track(this, new BiStreamMap<>(this, Objects.requireNonNull(mapper)), "map");
+    }
+
+    /**
+     * Creates a stream of the first elements of the pairs.
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @return A stream of the first elements.
+     */
+    public Stream<T> keys() {
+        return map((first, second) -> first);
+    }
+
+    /**
+     * Creates a stream of the second elements of the pairs.
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @return A stream of the second elements.
+     */
+    public Stream<U> values() {
+        return map((first, second) -> second);
+    }
+
+    /**
+     * Splits this stream into a stream of the first elements
+     * and a stream of the second elements of the pairs.
+     *
+     * <p>This stream is computed only once. The pairs are
+     * buffered as in {@link Stream#tee(int)}, so they are
+     * best consumed at the same pace.</p>
+     *
+     * <pre><code>
+     * final Pair&lt;Stream&lt;String&gt;, Stream&lt;Integer&gt;&gt; columns = Stream.ofMap(scores).unzip();
+     * </code></pre>
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @return A pair of the stream of the first elements
+     * and the stream of the second elements.
+     */
+    public Pair<Stream<T>, Stream<U>> unzip() {
+        final List<Stream<Pair<T, U>>> branches = map((first, second) -> new Pair<T, U>(first, second)).tee(2);
+        return new Pair<>(branches.get(0).map(Pair::first), branches.get(1).map(Pair::second));
     }
 
     /**
@@ -95,7 +186,7 @@ public abstract class BiStream<T, U> {
      * @throws NullPointerException If the predicate is {@code null}.
      */
     public BiStream<T, U> reject(final BiPredicate<? super T, ? super U> predicate) {
-        return new BiStreamSelect<>(this, Objects.requireNonNull(predicate).negate());
+        return Profiler.track(this, new BiStreamSelect<>(this, Objects.requireNonNull(predicate).negate()), "reject");
     }
 
     /**
@@ -109,7 +200,7 @@ public abstract class BiStream<T, U> {
      * which passed the predicate.
      */
     public BiStream<T, U> select(final BiPredicate<? super T, ? super U> predicate) {
-        return new BiStreamSelect<>(this, Objects.requireNonNull(predicate));
+        return Profiler.track(this, new BiStreamSelect<>(this, Objects.requireNonNull(predicate)), "select");
     }
 
     /**
@@ -153,7 +244,7 @@ public abstract class BiStream<T, U> {
      * @throws NullPointerException If the predicate is {@code null}.
      */
     public BiStream<T, U> dropUntil(final BiPredicate<? super T, ? super U> predicate) {
-        return new BiStreamDropUntil<>(this, Objects.requireNonNull(predicate));
+        return Profiler.track(this, new BiStreamDropUntil<>(this, Objects.requireNonNull(predicate)), "dropUntil");
     }
 
     /**
@@ -172,7 +263,7 @@ public abstract class BiStream<T, U> {
      * @throws NullPointerException If the predicate is {@code null}.
      */
     public BiStream<T, U> dropWhile(final BiPredicate<? super T, ? super U> predicate) {
-        return new BiStreamDropUntil<>(this, Objects.requireNonNull(predicate).negate());
+        return Profiler.track(this, new BiStreamDropUntil<>(this, Objects.requireNonNull(predicate).negate()), "dropWhile");
     }
 
     /**
@@ -201,7 +292,7 @@ public abstract class BiStream<T, U> {
      * @throws NullPointerException If the predicate is {@code null}.
      */
     public BiStream<T, U> takeUntil(final BiPredicate<? super T, ? super U> predicate) {
-        return new BiStreamTakeWhile<>(this, Objects.requireNonNull(predicate).negate());
+        return Profiler.track(this, new BiStreamTakeWhile<>(this, Objects.requireNonNull(predicate).negate()), "takeUntil");
     }
 
     /**
@@ -216,7 +307,7 @@ public abstract class BiStream<T, U> {
      * @throws NullPointerException If the predicate is {@code null}.
      */
     public BiStream<T, U> takeWhile(final BiPredicate<? super T, ? super U> predicate) {
-        return new BiStreamTakeWhile<>(this, Objects.requireNonNull(predicate));
+        return Profiler.track(this, new BiStreamTakeWhile<>(this, Objects.requireNonNull(predicate)), "takeWhile");
     }
 
     /**
@@ -258,7 +349,149 @@ public abstract class BiStream<T, U> {
      * @throws NullPointerException If the action is {@code null}.
      */
     public BiStream<T, U> inspect(final BiConsumer<? super T, ? super U> action) {
-        return new BiStreamInspect<>(this, Objects.requireNonNull(action));
+        return Profiler.track(this, new BiStreamInspect<>(this, Objects.requireNonNull(action)), "inspect");
+    }
+
+    /**
+     * Joins the pairs of this stream with the pairs
+     * of another stream which have an equal first element.
+     *
+     * <p>One of the streams is read into a hash table when the
+     * first pair is pulled and the other is pulled lazily through
+     * it. The table is built from the smaller stream if the sizes
+     * of both are known and from the other stream otherwise, so
+     * the other stream should be the smaller one. Each pair of this
+     * stream is paired with each value of the other stream with an
+     * equal key, and pairs without one are discarded.</p>
+     *
+     * <p>The joined pairs come in the order of the stream which
+     * isn't read into the table, so their order is unspecified.
+     * {@link #leftHashJoin(BiStream) leftHashJoin} always keeps the
+     * order of this stream.</p>
+     *
+     * <pre><code>
+     * Stream.ofMap(orders)                      // id -&gt; order
+     *       .hashJoin(Stream.ofMap(customers)) // id -&gt; customer
+     *       .forEach((id, pair) -&gt; ship(pair.first(), pair.second()));
+     * </code></pre>
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param other The stream to join with.
+     * @param <W> The type of the second elements
+     *           of the other stream.
+     * @return A stream of the keys paired with
+     * the values of both streams.
+     * @throws NullPointerException If the other stream is {@code null}.
+     * @see #leftHashJoin(BiStream) leftHashJoin
+     * @see #mergeJoin(BiStream, Comparator) mergeJoin
+     */
+    public <W> BiStream<T, Pair<U, W>> hashJoin(final BiStream<T, W> other) {
+        return Profiler.track(this, new BiStreamHashJoin<>(this, Objects.requireNonNull(other), false), "hashJoin");
+    }
+
+    /**
+     * Joins the pairs of this stream with the pairs
+     * of another stream which have an equal first element,
+     * keeping the pairs of this stream without one.
+     *
+     * <p>The other stream is read into a hash table when the
+     * first pair is pulled and this stream is pulled lazily
+     * through it, so the joined pairs keep the order of this
+     * stream. Pairs of this stream without an equal key in the
+     * other stream are paired with {@code null}.</p>
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param other The stream to join with.
+     * @param <W> The type of the second elements
+     *           of the other stream.
+     * @return A stream of the keys paired with
+     * the values of both streams.
+     * @throws NullPointerException If the other stream is {@code null}.
+     * @see #hashJoin(BiStream) hashJoin
+     */
+    public <W> BiStream<T, Pair<U, W>> leftHashJoin(final BiStream<T, W> other) {
+        return Profiler.track(this, new BiStreamHashJoin<>(this, Objects.requireNonNull(other), true), "leftHashJoin");
+    }
+
+    /**
+     * Filters this stream keeping only the pairs whose first
+     * element is a first element of another stream.
+     *
+     * <p>The keys of the other stream are read into a hash
+     * set when the first pair is pulled.</p>
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param other The stream with the keys to keep.
+     * @return A stream of the pairs with a key
+     * in the other stream.
+     * @throws NullPointerException If the other stream is {@code null}.
+     */
+    public BiStream<T, U> semiJoin(final BiStream<T, ?> other) {
+        return Profiler.track(this, new BiStreamSemiJoin<>(this, Objects.requireNonNull(other).keys()), "semiJoin");
+    }
+
+    /**
+     * Joins the pairs of this stream with the pairs of another
+     * stream which have an equal first element, where both
+     * streams are sorted by their first elements.
+     *
+     * <p>Both streams are pulled lazily and only the values of the
+     * other stream with the current key are kept, so joining streams
+     * with unique keys needs constant memory. If either stream isn't
+     * sorted according to the comparator, pairs will be missing.</p>
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param other The stream to join with.
+     * @param comparator The comparator both streams
+     *                   are sorted by.
+     * @param <W> The type of the second elements
+     *           of the other stream.
+     * @return A stream of the keys paired with
+     * the values of both streams.
+     * @throws NullPointerException If the other stream or
+     * the comparator is {@code null}.
+     * @see #hashJoin(BiStream) hashJoin
+     */
+    public <W> BiStream<T, Pair<U, W>> mergeJoin(final BiStream<T, W> other, final Comparator<? super T> comparator) {
+        Objects.requireNonNull(other);
+        Objects.requireNonNull(comparator);
+        return Profiler.track(this, new BiStreamMergeJoin<>(this, other, comparator), "mergeJoin");
+    }
+
+    /**
+     * Records runtime metrics for this stream and every
+     * stage created from it.
+     *
+     * <p>Each stage records the number of elements it pulls
+     * and produces and the time spent in it, excluding the
+     * time spent in the stages before it. When a terminal
+     * operation finishes, the metrics are passed to the listener.
+     * Only the stages created after this method is called are
+     * measured separately; the stages before it are measured
+     * as a single source stage. Streams which aren't profiled
+     * aren't affected.</p>
+     *
+     * <pre><code>
+     * Stream.ofMap(scores)
+     *       .profiled(profile -&gt; System.out.print(profile))
+     *       .select((name, score) -&gt; score &gt; 50)
+     *       .map((name, score) -&gt; name + ": " + score)
+     *       .forEach(System.out::println);
+     * </code></pre>
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param listener The listener to pass the metrics to.
+     * @return A profiled stream.
+     * @throws NullPointerException If the listener is {@code null}.
+     * @see PipelineProfile
+     */
+    public BiStream<T, U> profiled(final ProfileListener listener) {
+        return new BiStreamProfiled<>(this, Profiler.root(getClass().getSimpleName(), Objects.requireNonNull(listener)));
     }
 
 
@@ -277,13 +510,15 @@ public abstract class BiStream<T, U> {
      */
     public boolean allMatch(final BiPredicate<? super T, ? super U> predicate) {
         Objects.requireNonNull(predicate);
-        for (Optional<Pair<T, U>> curr = next(); curr.isPresent(); curr = next()) {
-            final Pair<T, U> pair = curr.get();
-            if (!predicate.test(pair.first(), pair.second())) {
-                return false;
+        return terminal("allMatch", pairs -> {
+            for (Optional<Pair<T, U>> curr = pairs.next(); curr.isPresent(); curr = pairs.next()) {
+                final Pair<T, U> pair = curr.get();
+                if (!predicate.test(pair.first(), pair.second())) {
+                    return false;
+                }
             }
-        }
-        return true;
+            return true;
+        });
     }
 
     /**
@@ -298,13 +533,15 @@ public abstract class BiStream<T, U> {
      */
     public boolean anyMatch(final BiPredicate<? super T, ? super U> predicate) {
         Objects.requireNonNull(predicate);
-        for (Optional<Pair<T, U>> curr = next(); curr.isPresent(); curr = next()) {
-            final Pair<T, U> pair = curr.get();
-            if (predicate.test(pair.first(), pair.second())) {
-                return true;
+        return terminal("anyMatch", pairs -> {
+            for (Optional<Pair<T, U>> curr = pairs.next(); curr.isPresent(); curr = pairs.next()) {
+                final Pair<T, U> pair = curr.get();
+                if (predicate.test(pair.first(), pair.second())) {
+                    return true;
+                }
             }
-        }
-        return false;
+            return false;
+        });
     }
 
     /**
@@ -329,7 +566,7 @@ public abstract class BiStream<T, U> {
      * @return Whether this stream is empty.
      */
     public boolean isEmpty() {
-        return !next().isPresent();
+        return terminal("isEmpty", pairs -> !pairs.next().isPresent());
     }
 
     /**
@@ -342,9 +579,22 @@ public abstract class BiStream<T, U> {
      */
     public void forEach(final BiConsumer<? super T, ? super U> action) {
         Objects.requireNonNull(action);
-        for (Optional<Pair<T, U>> curr = next(); curr.isPresent(); curr = next()) {
-            final Pair<T, U> pair = curr.get();
-            action.accept(pair.first(), pair.second());
-        }
+        terminal("forEach", pairs -> {
+            for (Optional<Pair<T, U>> curr = pairs.next(); curr.isPresent(); curr = pairs.next()) {
+                final Pair<T, U> pair = curr.get();
+                action.accept(pair.first(), pair.second());
+            }
+            return null;
+        });
+    }
+
+
+
+    // Helpers
+
+    // Runs a terminal operation. The body pulls the pairs through the cursor,
+    // which counts them for the event reported when the operation ends
+    final <R> R terminal(final String operation, final Function<TerminalCursor<Pair<T, U>>, R> body) {
+        return TerminalCursor.run(this, this::next, this::skip, this::close, operation, body);
     }
 }
@@ -29,4 +29,9 @@ final class BiStreamBiMap<T, U, R, S> extends BiStream<R, S> {
     protected BiStream<R, S> copy() {
         return new BiStreamBiMap<>(upstream.copy(), mapper);
     }
+
+    @Override
+    protected void close() {
+        upstream.close();
+    }
 }
@@ -37,4 +37,9 @@ final class BiStreamDropUntil<T, U> extends BiStream<T, U> {
     protected BiStream<T, U> copy() {
         return new BiStreamDropUntil<>(upstream.copy(), predicate);
     }
+
+    @Override
+    protected void close() {
+        upstream.close();
+    }
 }
@@ -0,0 +1,97 @@
+package up.stream;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import up.stream.util.Pair;
+
+final class BiStreamHashJoin<T, U, W> extends BiStream<T, Pair<U, W>> {
+    private static final int MAX_INITIAL_CAPACITY = 1 << 16;
+
+    private final BiStream<T, U> upstream;
+    private final BiStream<T, W> other;
+    private final boolean isLeft;
+    // The table is built from the smaller side when the sizes are known;
+    // an outer join always builds it from the other side
+    private final boolean isSwapped;
+    private BiStream<T, ?> probe;
+    private Map<T, List<Object>> table;
+    private T currKey;
+    private Object currValue;
+    private List<Object> currMatches;
+    private int matchIndex;
+
+    BiStreamHashJoin(final BiStream<T, U> upstream, final BiStream<T, W> other, final boolean isLeft) {
+        this.upstream = upstream;
+        this.other = other;
+        this.isLeft = isLeft;
+        final long size = upstream.exactSize();
+        final long otherSize = other.exactSize();
+        isSwapped = !isLeft && size >= 0 && (otherSize < 0 || size < otherSize);
+        table = null;
+        currMatches = null;
+        matchIndex = 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected Optional<Pair<T, Pair<U, W>>> next() {
+        if (table == null) {
+            build();
+        }
+        while (true) {
+            if (currMatches != null && matchIndex < currMatches.size()) {
+                final Object match = currMatches.get(matchIndex++);
+                return Optional.of(isSwapped
+                    ? new Pair<>(currKey, new Pair<>((U) match, (W) currValue))
+                    : new Pair<>(currKey, new Pair<>((U) currValue, (W) match)));
+            }
+            final Optional<? extends Pair<T, ?>> elem = probe.next();
+            if (!elem.isPresent()) {
+                return Optional.empty();
+            }
+            final Pair<T, ?> pair = elem.get();
+            currKey = pair.first();
+            currValue = pair.second();
+            currMatches = table.get(currKey);
+            matchIndex = 0;
+            if (currMatches == null && isLeft) {
+                return Optional.of(new Pair<>(currKey, new Pair<>((U) currValue, null)));
+            }
+        }
+    }
+
+    @Override
+    protected BiStream<T, Pair<U, W>> copy() {
+        return new BiStreamHashJoin<>(upstream.copy(), other.copy(), isLeft);
+    }
+
+    @Override
+    protected void close() {
+        upstream.close();
+        other.close();
+    }
+
+    private void build() {
+        final BiStream<T, ?> buildSide = isSwapped ? upstream : other;
+        probe = isSwapped ? other : upstream;
+        final long size = buildSide.exactSize();
+        table = size < 0
+            ? new HashMap<>()
+            : new HashMap<>((int) Math.min(MAX_INITIAL_CAPACITY, size * 4 / 3 + 1));
+        for (Optional<? extends Pair<T, ?>> curr = buildSide.next(); curr.isPresent(); curr = buildSide.next()) {
+            final Pair<T, ?> pair = curr.get();
+            List<Object> values = table.get(pair.first());
+            if (values == null) {
+                // Most keys are unique
+                values = new ArrayList<>(1);
+                table.put(pair.first(), values);
+            }
+            values.add(pair.second());
+        }
+        buildSide.close();
+    }
+}
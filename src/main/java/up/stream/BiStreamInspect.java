@@ -25,4 +25,14 @@ final class BiStreamInspect<T, U> extends BiStream<T, U> {
     protected BiStream<T, U> copy() {
         return new BiStreamInspect<>(upstream.copy(), action);
     }
+
+    @Override
+    protected void close() {
+        upstream.close();
+    }
+
+    @Override
+    long exactSize() {
+        return upstream.exactSize();
+    }
 }
@@ -29,4 +29,9 @@ final class BiStreamMap<T, U, R> extends Stream<R> {
     protected Stream<R> copy() {
         return new BiStreamMap<>(upstream.copy(), mapper);
     }
+
+    @Override
+    protected void close() {
+        upstream.close();
+    }
 }
@@ -0,0 +1,97 @@
+package up.stream;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import up.stream.util.Pair;
+
+final class BiStreamMergeJoin<T, U, W> extends BiStream<T, Pair<U, W>> {
+    private final BiStream<T, U> upstream;
+    private final BiStream<T, W> other;
+    private final Comparator<? super T> comparator;
+    // The values of the other stream with the key of the current pair,
+    // so only runs of equal keys are buffered
+    private final List<W> run;
+    private T runKey;
+    private int runIndex;
+    private Pair<T, U> curr;
+    private Pair<T, W> pending;
+    private boolean hasOtherEnded;
+
+    BiStreamMergeJoin(final BiStream<T, U> upstream, final BiStream<T, W> other, final Comparator<? super T> comparator) {
+        this.upstream = upstream;
+        this.other = other;
+        this.comparator = comparator;
+        run = new ArrayList<>();
+        runIndex = 0;
+        curr = null;
+        pending = null;
+        hasOtherEnded = false;
+    }
+
+    @Override
+    protected Optional<Pair<T, Pair<U, W>>> next() {
+        while (true) {
+            if (curr != null && runIndex < run.size()) {
+                return Optional.of(new Pair<>(curr.first(), new Pair<>(curr.second(), run.get(runIndex++))));
+            }
+            final Optional<Pair<T, U>> elem = upstream.next();
+            if (!elem.isPresent()) {
+                return Optional.empty();
+            }
+            curr = elem.get();
+            runIndex = 0;
+            if (!run.isEmpty() && comparator.compare(curr.first(), runKey) == 0) {
+                continue;
+            }
+            run.clear();
+            if (!advanceTo(curr.first())) {
+                // Nothing in the other stream is equal or greater
+                return Optional.empty();
+            }
+        }
+    }
+
+    @Override
+    protected BiStream<T, Pair<U, W>> copy() {
+        return new BiStreamMergeJoin<>(upstream.copy(), other.copy(), comparator);
+    }
+
+    @Override
+    protected void close() {
+        upstream.close();
+        other.close();
+    }
+
+    // Fills the run with the values with the key,
+    // returns false if the other stream has ended before it
+    private boolean advanceTo(final T key) {
+        while (pending == null || comparator.compare(pending.first(), key) < 0) {
+            if (!pull()) {
+                return false;
+            }
+        }
+        while (pending != null && comparator.compare(pending.first(), key) == 0) {
+            runKey = pending.first();
+            run.add(pending.second());
+            pull();
+        }
+        return true;
+    }
+
+    private boolean pull() {
+        if (hasOtherEnded) {
+            return false;
+        }
+        final Optional<Pair<T, W>> elem = other.next();
+        if (!elem.isPresent()) {
+            hasOtherEnded = true;
+            pending = null;
+            return false;
+        }
+        pending = elem.get();
+        return true;
+    }
+}
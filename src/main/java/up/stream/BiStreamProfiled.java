@@ -0,0 +1,57 @@
+package up.stream;
+
+import java.util.Optional;
+
+import up.stream.util.Pair;
+
+final class BiStreamProfiled<T, U> extends BiStream<T, U> {
+    private final BiStream<T, U> stage;
+    private final Profiler.Counters counters;
+
+    BiStreamProfiled(final BiStream<T, U> stage, final Profiler.Counters counters) {
+        this.stage = stage;
+        this.counters = counters;
+    }
+
+    @Override
+    protected Optional<Pair<T, U>> next() {
+        final long start = System.nanoTime();
+        final Optional<Pair<T, U>> elem = stage.next();
+        counters.nanos += System.nanoTime() - start;
+        if (elem.isPresent()) {
+            ++counters.elements;
+        }
+        return elem;
+    }
+
+    @Override
+    protected long skip(final long count) {
+        final long start = System.nanoTime();
+        final long skipped = stage.skip(count);
+        counters.nanos += System.nanoTime() - start;
+        counters.elements += skipped;
+        return skipped;
+    }
+
+    @Override
+    protected BiStream<T, U> copy() {
+        // Copies accumulate into the same counters
+        return new BiStreamProfiled<>(stage.copy(), counters);
+    }
+
+    @Override
+    protected void close() {
+        stage.close();
+        counters.onClose();
+    }
+
+    @Override
+    long exactSize() {
+        return stage.exactSize();
+    }
+
+    @Override
+    Profiler.Counters counters() {
+        return counters;
+    }
+}
@@ -31,4 +31,9 @@ final class BiStreamSelect<T, U> extends BiStream<T, U> {
     protected BiStream<T, U> copy() {
         return new BiStreamSelect<>(upstream.copy(), filter);
     }
+
+    @Override
+    protected void close() {
+        upstream.close();
+    }
 }
@@ -0,0 +1,56 @@
+package up.stream;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import up.stream.util.Pair;
+
+final class BiStreamSemiJoin<T, U> extends BiStream<T, U> {
+    private static final int MAX_INITIAL_CAPACITY = 1 << 16;
+
+    private final BiStream<T, U> upstream;
+    private final Stream<T> keys;
+    private Set<T> keySet;
+
+    BiStreamSemiJoin(final BiStream<T, U> upstream, final Stream<T> keys) {
+        this.upstream = upstream;
+        this.keys = keys;
+        keySet = null;
+    }
+
+    @Override
+    protected Optional<Pair<T, U>> next() {
+        if (keySet == null) {
+            build();
+        }
+        Optional<Pair<T, U>> elem = upstream.next();
+        // Prevent Objects#requireNonNull check in Optional#filter
+        while (elem.isPresent() && !keySet.contains(elem.get().first())) {
+            elem = upstream.next();
+        }
+        return elem;
+    }
+
+    @Override
+    protected BiStream<T, U> copy() {
+        return new BiStreamSemiJoin<>(upstream.copy(), keys.copy());
+    }
+
+    @Override
+    protected void close() {
+        upstream.close();
+        keys.close();
+    }
+
+    private void build() {
+        final long size = keys.exactSize();
+        keySet = size < 0
+            ? new HashSet<>()
+            : new HashSet<>((int) Math.min(MAX_INITIAL_CAPACITY, size * 4 / 3 + 1));
+        for (Optional<T> curr = keys.next(); curr.isPresent(); curr = keys.next()) {
+            keySet.add(curr.get());
+        }
+        keys.close();
+    }
+}
@@ -31,6 +31,7 @@ final class BiStreamTakeWhile<T, U> extends BiStream<T, U> {
             }
         }
         isTaking = false;
+        upstream.close();
         return Optional.empty();
     }
 
@@ -38,4 +39,9 @@ final class BiStreamTakeWhile<T, U> extends BiStream<T, U> {
     protected BiStream<T, U> copy() {
         return new BiStreamTakeWhile<>(upstream.copy(), predicate);
     }
+
+    @Override
+    protected void close() {
+        upstream.close();
+    }
 }
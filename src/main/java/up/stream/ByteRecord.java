@@ -0,0 +1,162 @@
+package up.stream;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A view of a record of bytes in a {@link ByteBuffer}
+ * with accessors for the primitive fields in it.
+ *
+ * <p>Record streams reuse a single view for all records,
+ * moving it to the next record each time an element is
+ * requested. A view must not be kept after the next element
+ * has been requested. If a record is needed afterwards, its
+ * fields should be read or it should be copied with
+ * {@link #toByteArray()}.</p>
+ *
+ * <p>Fields are read at an offset from the start of the
+ * record using the byte order of the underlying buffer.</p>
+ *
+ * @see Stream#ofRecords(ByteBuffer, int)
+ * @see Stream#ofLengthPrefixedRecords(ByteBuffer)
+ */
+public final class ByteRecord {
+    private ByteBuffer buffer;
+    private int start;
+    private int length;
+    private long index;
+
+    ByteRecord(final ByteBuffer buffer) {
+        this.buffer = buffer;
+        start = 0;
+        length = 0;
+        index = -1;
+    }
+
+    ByteRecord moveTo(final ByteBuffer buffer, final int start, final int length, final long index) {
+        this.buffer = buffer;
+        this.start = start;
+        this.length = length;
+        this.index = index;
+        return this;
+    }
+
+    /**
+     * Returns the index of this record in its source.
+     *
+     * @return The index of this record.
+     */
+    public long index() {
+        return index;
+    }
+
+    /**
+     * Returns the number of bytes in this record.
+     *
+     * @return The length of this record.
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Reads the byte at the given offset.
+     *
+     * @param offset The offset from the start of the record.
+     * @return The byte at the offset.
+     * @throws IndexOutOfBoundsException If the field is outside the record.
+     */
+    public byte getByte(final int offset) {
+        return buffer.get(position(offset, Byte.BYTES));
+    }
+
+    /**
+     * Reads the short at the given offset.
+     *
+     * @param offset The offset from the start of the record.
+     * @return The short at the offset.
+     * @throws IndexOutOfBoundsException If the field is outside the record.
+     */
+    public short getShort(final int offset) {
+        return buffer.getShort(position(offset, Short.BYTES));
+    }
+
+    /**
+     * Reads the char at the given offset.
+     *
+     * @param offset The offset from the start of the record.
+     * @return The char at the offset.
+     * @throws IndexOutOfBoundsException If the field is outside the record.
+     */
+    public char getChar(final int offset) {
+        return buffer.getChar(position(offset, Character.BYTES));
+    }
+
+    /**
+     * Reads the int at the given offset.
+     *
+     * @param offset The offset from the start of the record.
+     * @return The int at the offset.
+     * @throws IndexOutOfBoundsException If the field is outside the record.
+     */
+    public int getInt(final int offset) {
+        return buffer.getInt(position(offset, Integer.BYTES));
+    }
+
+    /**
+     * Reads the long at the given offset.
+     *
+     * @param offset The offset from the start of the record.
+     * @return The long at the offset.
+     * @throws IndexOutOfBoundsException If the field is outside the record.
+     */
+    public long getLong(final int offset) {
+        return buffer.getLong(position(offset, Long.BYTES));
+    }
+
+    /**
+     * Reads the float at the given offset.
+     *
+     * @param offset The offset from the start of the record.
+     * @return The float at the offset.
+     * @throws IndexOutOfBoundsException If the field is outside the record.
+     */
+    public float getFloat(final int offset) {
+        return buffer.getFloat(position(offset, Float.BYTES));
+    }
+
+    /**
+     * Reads the double at the given offset.
+     *
+     * @param offset The offset from the start of the record.
+     * @return The double at the offset.
+     * @throws IndexOutOfBoundsException If the field is outside the record.
+     */
+    public double getDouble(final int offset) {
+        return buffer.getDouble(position(offset, Double.BYTES));
+    }
+
+    /**
+     * Copies the bytes of this record into a new array.
+     *
+     * @return The bytes of this record.
+     */
+    public byte[] toByteArray() {
+        final byte[] res = new byte[length];
+        for (int i = 0; i < length; ++i) {
+            res[i] = buffer.get(start + i);
+        }
+        return res;
+    }
+
+    private int position(final int offset, final int size) {
+        if (offset < 0 || offset > length - size) {
+            throw new IndexOutOfBoundsException("Field of " + size + " bytes at offset " + offset + " is outside a record of " + length + " bytes");
+        }
+        return start + offset;
+    }
+
+    @Override
+    public String toString() {
+        return "ByteRecord(index = " + index + ", length = " + length + ")";
+    }
+}
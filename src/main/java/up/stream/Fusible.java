@@ -0,0 +1,8 @@
+package up.stream;
+
+// Stages which can be fused into a single loop by Stream#compile
+interface Fusible {
+    Stream<?> upstream();
+
+    Pipeline.Op op();
+}
@@ -0,0 +1,68 @@
+package up.stream;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * What a stream of a {@linkplain Stream#fromQueue(java.util.Queue,
+ * IdleStrategy, Object) non-blocking queue} does while the queue is empty.
+ *
+ * <p>Spinning has the lowest latency and uses a whole core, parking
+ * has the highest latency and uses almost no processor time.</p>
+ */
+@FunctionalInterface
+public interface IdleStrategy {
+    /**
+     * Called each time the queue is found empty.
+     *
+     * @param idleCount The number of times in a row the
+     *                  queue has been found empty, starting from 1.
+     * @return Whether to keep waiting for elements. The stream
+     * ends if this is {@code false}.
+     */
+    boolean idle(int idleCount);
+
+    /**
+     * Returns a strategy which checks the queue again immediately.
+     *
+     * @return A strategy which keeps waiting.
+     */
+    static IdleStrategy spinning() {
+        return idleCount -> true;
+    }
+
+    /**
+     * Returns a strategy which lets other threads run
+     * before the queue is checked again.
+     *
+     * @return A strategy which keeps waiting.
+     * @see Thread#yield()
+     */
+    static IdleStrategy yielding() {
+        return idleCount -> {
+            Thread.yield();
+            return true;
+        };
+    }
+
+    /**
+     * Returns a strategy which parks the thread for the
+     * given time before the queue is checked again.
+     *
+     * @param interval The time to park for.
+     * @return A strategy which keeps waiting.
+     * @throws IllegalArgumentException If the interval is negative.
+     * @throws NullPointerException If the interval is {@code null}.
+     */
+    static IdleStrategy parking(final Duration interval) {
+        if (Objects.requireNonNull(interval).isNegative()) {
+            throw new IllegalArgumentException("Duration must not be negative: " + interval);
+        }
+        final long nanos = interval.toNanos();
+        return idleCount -> {
+            LockSupport.parkNanos(nanos);
+            return true;
+        };
+    }
+}
@@ -0,0 +1,25 @@
+package up.stream;
+
+/**
+ * What a {@linkplain Stream#tee(int, int, OverflowPolicy) tee}
+ * does when its buffer is full, which happens when the fastest
+ * branch gets too far ahead of the slowest one.
+ */
+public enum OverflowPolicy {
+    /**
+     * The fastest branch waits until the slowest one catches up.
+     *
+     * <p>The branches must be consumed on different threads,
+     * otherwise the fastest branch waits forever.</p>
+     */
+    BLOCK,
+    /**
+     * The fastest branch throws an {@link IllegalStateException}.
+     */
+    FAIL,
+    /**
+     * The buffer grows, so memory use is only bounded by
+     * how far the branches drift apart.
+     */
+    GROW
+}
@@ -0,0 +1,373 @@
+package up.stream;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A reusable chain of operations which can be
+ * applied to many sources.
+ *
+ * <p>A pipeline is immutable: each operation returns
+ * a new pipeline. Adjacent operations are fused when the
+ * pipeline is built, for example consecutive maps are
+ * composed into a single function and consecutive filters
+ * into a single predicate. Applying a pipeline creates a
+ * single stage for all of its operations. The state of the
+ * operations, such as the number of taken elements or the
+ * set of unique elements, belongs to each application.</p>
+ *
+ * <pre><code>
+ * final Pipeline&lt;String, Integer&gt; lengths =
+ *     Pipeline.&lt;String&gt;identity()
+ *             .map(String::trim)
+ *             .reject(String::isEmpty)
+ *             .map(String::length)
+ *             .take(10);
+ *
+ * lengths.apply(request.headers()).forEach(System.out::println);
+ * </code></pre>
+ *
+ * @param <T> The type of the elements the pipeline is applied to.
+ * @param <R> The type of the elements the pipeline produces.
+ * @see Stream
+ */
+public final class Pipeline<T, R> {
+    private static final Pipeline<?, ?> IDENTITY = new Pipeline<>(Collections.emptyList());
+
+    private final List<Op> ops;
+    // Built once so that applications don't copy the list
+    private final Op[] opArray;
+
+    private Pipeline(final List<Op> ops) {
+        this.ops = ops;
+        opArray = ops.toArray(new Op[0]);
+    }
+
+    /**
+     * Returns a pipeline without operations.
+     *
+     * @param <T> The type of the elements.
+     * @return A pipeline which passes all elements unchanged.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Pipeline<T, T> identity() {
+        return (Pipeline<T, T>) IDENTITY;
+    }
+
+    /**
+     * Adds an operation which maps each element
+     * with the specified mapper.
+     *
+     * @param mapper The mapper.
+     * @param <S> The type of the mapped elements.
+     * @return A new pipeline with the operation added.
+     * @throws NullPointerException If the mapper is {@code null}.
+     * @see Stream#map(Function)
+     */
+    public <S> Pipeline<T, S> map(final Function<? super R, ? extends S> mapper) {
+        return map(Objects.requireNonNull(mapper), Op.MAP);
+    }
+
+    /**
+     * Adds an operation which keeps only the
+     * elements which pass the predicate.
+     *
+     * @param predicate The predicate to test against.
+     * @return A new pipeline with the operation added.
+     * @throws NullPointerException If the predicate is {@code null}.
+     * @see Stream#select(Predicate)
+     */
+    public Pipeline<T, R> select(final Predicate<? super R> predicate) {
+        return reject(Objects.requireNonNull(predicate).negate());
+    }
+
+    /**
+     * Adds an operation which discards the
+     * elements which pass the predicate.
+     *
+     * @param predicate The predicate to test against.
+     * @return A new pipeline with the operation added.
+     * @throws NullPointerException If the predicate is {@code null}.
+     * @see Stream#reject(Predicate)
+     */
+    @SuppressWarnings("unchecked")
+    public Pipeline<T, R> reject(final Predicate<? super R> predicate) {
+        Objects.requireNonNull(predicate);
+        final Op last = last();
+        if (last != null && last.kind == Op.REJECT) {
+            final Predicate<Object> prev = (Predicate<Object>) last.operation;
+            final Predicate<Object> curr = (Predicate<Object>) predicate;
+            return replaceLast(new Op(Op.REJECT, prev.or(curr), 0));
+        }
+        return add(new Op(Op.REJECT, predicate, 0));
+    }
+
+    /**
+     * Adds an operation which keeps only the first
+     * occurrence of each element.
+     *
+     * @return A new pipeline with the operation added.
+     * @see Stream#unique()
+     */
+    public Pipeline<T, R> unique() {
+        final Op last = last();
+        // Unique elements are already unique
+        return last != null && last.kind == Op.UNIQUE ? this : add(new Op(Op.UNIQUE, null, 0));
+    }
+
+    /**
+     * Adds an operation which drops the specified
+     * number of elements.
+     *
+     * @param count The number of elements to drop.
+     * @return A new pipeline with the operation added.
+     * @see Stream#drop(long)
+     */
+    public Pipeline<T, R> drop(final long count) {
+        if (count <= 0) {
+            return this;
+        }
+        final Op last = last();
+        if (last != null && last.kind == Op.DROP) {
+            final long sum = last.count + count;
+            return replaceLast(new Op(Op.DROP, null, sum < 0 ? Long.MAX_VALUE : sum));
+        }
+        return add(new Op(Op.DROP, null, count));
+    }
+
+    /**
+     * Adds an operation which drops elements until
+     * an element which passes the predicate is found.
+     *
+     * @param predicate The predicate to test against.
+     * @return A new pipeline with the operation added.
+     * @throws NullPointerException If the predicate is {@code null}.
+     * @see Stream#dropUntil(Predicate)
+     */
+    public Pipeline<T, R> dropUntil(final Predicate<? super R> predicate) {
+        return dropWhile(Objects.requireNonNull(predicate).negate());
+    }
+
+    /**
+     * Adds an operation which drops elements until
+     * an element which fails the predicate is found.
+     *
+     * @param predicate The predicate to test against.
+     * @return A new pipeline with the operation added.
+     * @throws NullPointerException If the predicate is {@code null}.
+     * @see Stream#dropWhile(Predicate)
+     */
+    public Pipeline<T, R> dropWhile(final Predicate<? super R> predicate) {
+        return add(new Op(Op.DROP_WHILE, Objects.requireNonNull(predicate), 0));
+    }
+
+    /**
+     * Adds an operation which takes the specified
+     * number of elements and discards the rest.
+     *
+     * @param count The number of elements to take.
+     * @return A new pipeline with the operation added.
+     * @see Stream#take(long)
+     */
+    public Pipeline<T, R> take(final long count) {
+        final long clamped = Math.max(count, 0);
+        final Op last = last();
+        if (last != null && last.kind == Op.TAKE) {
+            return last.count <= clamped ? this : replaceLast(new Op(Op.TAKE, null, clamped));
+        }
+        return add(new Op(Op.TAKE, null, clamped));
+    }
+
+    /**
+     * Adds an operation which takes elements until
+     * an element which passes the predicate is found.
+     *
+     * @param predicate The predicate to test against.
+     * @return A new pipeline with the operation added.
+     * @throws NullPointerException If the predicate is {@code null}.
+     * @see Stream#takeUntil(Predicate)
+     */
+    public Pipeline<T, R> takeUntil(final Predicate<? super R> predicate) {
+        return takeWhile(Objects.requireNonNull(predicate).negate());
+    }
+
+    /**
+     * Adds an operation which takes elements
+     * while they pass the predicate.
+     *
+     * @param predicate The predicate to test against.
+     * @return A new pipeline with the operation added.
+     * @throws NullPointerException If the predicate is {@code null}.
+     * @see Stream#takeWhile(Predicate)
+     */
+    public Pipeline<T, R> takeWhile(final Predicate<? super R> predicate) {
+        return add(new Op(Op.TAKE_WHILE, Objects.requireNonNull(predicate), 0));
+    }
+
+    /**
+     * Adds an operation which applies an action to
+     * each element without altering it.
+     *
+     * @param action The action to apply.
+     * @return A new pipeline with the operation added.
+     * @throws NullPointerException If the action is {@code null}.
+     * @see Stream#inspect(Consumer)
+     */
+    public Pipeline<T, R> inspect(final Consumer<? super R> action) {
+        return add(new Op(Op.INSPECT, Objects.requireNonNull(action), 0));
+    }
+
+    /**
+     * Adds the operations of another pipeline
+     * after the operations of this pipeline.
+     *
+     * @param next The pipeline to add.
+     * @param <S> The type of the elements the other pipeline produces.
+     * @return A new pipeline with the operations added.
+     * @throws NullPointerException If the other pipeline is {@code null}.
+     */
+    @SuppressWarnings("unchecked")
+    public <S> Pipeline<T, S> then(final Pipeline<? super R, S> next) {
+        Pipeline<T, Object> res = (Pipeline<T, Object>) this;
+        for (final Op op : Objects.requireNonNull(next).ops) {
+            res = res.fuse(op);
+        }
+        return (Pipeline<T, S>) res;
+    }
+
+    /**
+     * Applies this pipeline to the elements of the stream.
+     *
+     * <p>This is an intermediate operation of the stream.</p>
+     *
+     * @param stream The stream to apply the pipeline to.
+     * @return A stream of the elements produced by this pipeline.
+     * @throws NullPointerException If the stream is {@code null}.
+     */
+    public Stream<R> apply(final Stream<? extends T> stream) {
+        return Profiler.track(stream, new PipelineApply<>(Objects.requireNonNull(stream), opArray), "pipeline");
+    }
+
+    /**
+     * Applies this pipeline to the elements of the iterable.
+     *
+     * @param iterable The iterable to apply the pipeline to.
+     * @return A stream of the elements produced by this pipeline.
+     * @throws NullPointerException If the iterable is {@code null}.
+     */
+    public Stream<R> apply(final Iterable<? extends T> iterable) {
+        return apply(new StreamOfIterable<>(Objects.requireNonNull(iterable)));
+    }
+
+    /**
+     * Applies this pipeline to the elements of the array.
+     *
+     * @param array The array to apply the pipeline to.
+     * @return A stream of the elements produced by this pipeline.
+     * @throws NullPointerException If the array is {@code null}.
+     */
+    public Stream<R> apply(final T[] array) {
+        return apply(new StreamOfArray<>(Objects.requireNonNull(array)));
+    }
+
+    // Fuses the fusible stages at the end of the stream into one stage
+    @SuppressWarnings("unchecked")
+    static <T> Stream<T> compile(final Stream<T> stream) {
+        final List<Op> ops = new ArrayList<>();
+        Stream<?> source = stream;
+        while (source instanceof Fusible) {
+            ops.add(((Fusible) source).op());
+            source = ((Fusible) source).upstream();
+        }
+        if (ops.size() < 2) {
+            // A single stage is already as fast as it can be
+            return stream;
+        }
+        Pipeline<Object, Object> res = identity();
+        for (int i = ops.size() - 1; i >= 0; --i) {
+            res = res.fuse(ops.get(i));
+        }
+        return new PipelineApply<>((Stream<Object>) source, res.opArray);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Pipeline<T, Object> fuse(final Op op) {
+        switch (op.kind) {
+            case Op.MAP:
+            case Op.PURE_MAP:
+                return map((Function<Object, Object>) op.operation, op.kind);
+            case Op.REJECT:
+                return (Pipeline<T, Object>) reject((Predicate<Object>) op.operation);
+            case Op.UNIQUE:
+                return (Pipeline<T, Object>) unique();
+            case Op.DROP:
+                return (Pipeline<T, Object>) drop(op.count);
+            case Op.TAKE:
+                return (Pipeline<T, Object>) take(op.count);
+            default:
+                return add(op);
+        }
+    }
+
+    // Only maps of pure mappers compose into a pure map
+    @SuppressWarnings("unchecked")
+    private <S> Pipeline<T, S> map(final Function<? super R, ? extends S> mapper, final int kind) {
+        final Op last = last();
+        if (last != null && (last.kind == Op.MAP || last.kind == Op.PURE_MAP)) {
+            final Function<Object, Object> prev = (Function<Object, Object>) last.operation;
+            final Function<Object, Object> curr = (Function<Object, Object>) mapper;
+            // A null result ends the stream, so it must not reach the next mapper
+            return replaceLast(new Op(last.kind == Op.PURE_MAP ? kind : Op.MAP, (Function<Object, Object>) elem -> {
+                final Object mapped = prev.apply(elem);
+                return mapped == null ? null : curr.apply(mapped);
+            }, 0));
+        }
+        return add(new Op(kind, mapper, 0));
+    }
+
+    private Op last() {
+        return ops.isEmpty() ? null : ops.get(ops.size() - 1);
+    }
+
+    private <S> Pipeline<T, S> add(final Op op) {
+        final List<Op> res = new ArrayList<>(ops.size() + 1);
+        res.addAll(ops);
+        res.add(op);
+        return new Pipeline<>(Collections.unmodifiableList(res));
+    }
+
+    private <S> Pipeline<T, S> replaceLast(final Op op) {
+        final List<Op> res = new ArrayList<>(ops);
+        res.set(res.size() - 1, op);
+        return new Pipeline<>(Collections.unmodifiableList(res));
+    }
+
+    // Only holds the configuration, the state belongs to each application
+    static final class Op {
+        static final int MAP = 0;
+        static final int REJECT = 1;
+        static final int UNIQUE = 2;
+        static final int DROP = 3;
+        static final int DROP_WHILE = 4;
+        static final int TAKE = 5;
+        static final int TAKE_WHILE = 6;
+        static final int INSPECT = 7;
+        // A map whose skipped elements don't need to be mapped
+        static final int PURE_MAP = 8;
+
+        final int kind;
+        final Object operation;
+        final long count;
+
+        Op(final int kind, final Object operation, final long count) {
+            this.kind = kind;
+            this.operation = operation;
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package up.stream;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+// Runs the operations of a pipeline in one interpreter loop. The loop is
+// shared by all pipelines, so its calls to the operations are megamorphic
+final class PipelineApply<T, R> extends Stream<R> {
+    private final Stream<? extends T> upstream;
+    private final Pipeline.Op[] ops;
+    // The number of pure maps before the first other operation
+    private final int pureMaps;
+    // Per-operation state, created when first needed
+    private long[] counts;
+    private Set<Object>[] uniques;
+    private boolean hasStarted;
+    private boolean hasEnded;
+
+    PipelineApply(final Stream<? extends T> upstream, final Pipeline.Op[] ops) {
+        this.upstream = upstream;
+        this.ops = ops;
+        int count = 0;
+        while (count < ops.length && ops[count].kind == Pipeline.Op.PURE_MAP) {
+            ++count;
+        }
+        pureMaps = count;
+        hasStarted = false;
+        hasEnded = false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected Optional<R> next() {
+        if (!hasStarted) {
+            start();
+        }
+        outer:
+        while (!hasEnded) {
+            final Optional<? extends T> curr = upstream.next();
+            if (!curr.isPresent()) {
+                return Optional.empty();
+            }
+            Object elem = curr.get();
+            for (int i = 0; i < ops.length; ++i) {
+                final Pipeline.Op op = ops[i];
+                switch (op.kind) {
+                    case Pipeline.Op.MAP:
+                    case Pipeline.Op.PURE_MAP:
+                        elem = ((Function<Object, Object>) op.operation).apply(elem);
+                        if (elem == null) {
+                            // Same as the empty optional of a map stage
+                            return Optional.empty();
+                        }
+                        break;
+                    case Pipeline.Op.REJECT:
+                        if (((Predicate<Object>) op.operation).test(elem)) {
+                            continue outer;
+                        }
+                        break;
+                    case Pipeline.Op.UNIQUE:
+                        if (!uniques[i].add(elem)) {
+                            continue outer;
+                        }
+                        break;
+                    case Pipeline.Op.DROP:
+                        if (counts[i] < op.count) {
+                            ++counts[i];
+                            continue outer;
+                        }
+                        break;
+                    case Pipeline.Op.DROP_WHILE:
+                        if (counts[i] == 0) {
+                            if (((Predicate<Object>) op.operation).test(elem)) {
+                                continue outer;
+                            }
+                            counts[i] = 1;
+                        }
+                        break;
+                    case Pipeline.Op.TAKE:
+                        if (++counts[i] == op.count) {
+                            // Nothing can pass this operation after this element
+                            end();
+                        }
+                        break;
+                    case Pipeline.Op.TAKE_WHILE:
+                        if (!((Predicate<Object>) op.operation).test(elem)) {
+                            end();
+                            return Optional.empty();
+                        }
+                        break;
+                    default:
+                        ((Consumer<Object>) op.operation).accept(elem);
+                        break;
+                }
+            }
+            return Optional.of((R) elem);
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    protected long skip(final long count) {
+        // Pure maps neither end the stream nor need to see the skipped elements
+        if (pureMaps == ops.length && !hasEnded) {
+            return upstream.skip(count);
+        }
+        return super.skip(count);
+    }
+
+    @Override
+    protected Stream<R> copy() {
+        return new PipelineApply<>(upstream.copy(), ops);
+    }
+
+    @Override
+    protected void close() {
+        upstream.close();
+    }
+
+    @Override
+    long exactSize() {
+        return pureMaps == ops.length && !hasEnded ? upstream.exactSize() : -1;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private void start() {
+        hasStarted = true;
+        for (int i = 0; i < ops.length; ++i) {
+            final int kind = ops[i].kind;
+            if (kind == Pipeline.Op.UNIQUE) {
+                if (uniques == null) {
+                    uniques = new Set[ops.length];
+                }
+                uniques[i] = new HashSet<>();
+            } else if (kind == Pipeline.Op.DROP || kind == Pipeline.Op.DROP_WHILE || kind == Pipeline.Op.TAKE) {
+                if (counts == null) {
+                    counts = new long[ops.length];
+                }
+                if (kind == Pipeline.Op.TAKE && ops[i].count <= 0) {
+                    end();
+                }
+            }
+        }
+        // Drops after nothing but pure maps don't need to see the elements
+        if (!hasEnded && pureMaps < ops.length && ops[pureMaps].kind == Pipeline.Op.DROP) {
+            upstream.skip(ops[pureMaps].count);
+            counts[pureMaps] = ops[pureMaps].count;
+        }
+    }
+
+    private void end() {
+        hasEnded = true;
+        // Release upstream resources as soon as the last element is pulled
+        upstream.close();
+    }
+}
@@ -0,0 +1,35 @@
+package up.stream;
+
+// Hooks for diagnostic events. This implementation does nothing;
+// on Java 11+ it is replaced by one which emits Flight Recorder events.
+final class PipelineEvents {
+    private PipelineEvents() {
+        throw new UnsupportedOperationException("This class cannot be instantiated");
+    }
+
+    static Terminal beginTerminal() {
+        return null;
+    }
+
+    static void endTerminal(final Terminal event, final String operation, final Object stream, final long elements) {
+        // No events
+    }
+
+    static void uniqueGrowth(final Object stage, final int size) {
+        // No events
+    }
+
+    static void recopy(final Object stage, final long cycle) {
+        // No events
+    }
+
+    static void bufferAllocation(final Object stage, final long bytes, final boolean isMapped) {
+        // No events
+    }
+
+    static final class Terminal {
+        private Terminal() {
+            // Never created
+        }
+    }
+}
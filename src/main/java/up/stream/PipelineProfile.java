@@ -0,0 +1,129 @@
+package up.stream;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The runtime metrics of each stage of a
+ * {@linkplain Stream#profiled(ProfileListener) profiled} stream.
+ *
+ * <p>The stages are ordered from the source of the
+ * stream to the stage the terminal operation was
+ * called on.</p>
+ *
+ * @see ProfileListener
+ */
+public final class PipelineProfile {
+    private final List<Stage> stages;
+
+    PipelineProfile(final List<Stage> stages) {
+        this.stages = Collections.unmodifiableList(stages);
+    }
+
+    /**
+     * Returns the metrics of each stage.
+     *
+     * @return An unmodifiable list of the metrics
+     * of each stage.
+     */
+    public List<Stage> stages() {
+        return stages;
+    }
+
+    /**
+     * Returns the total time spent computing
+     * the elements of the stream.
+     *
+     * @return The total time in nanoseconds.
+     */
+    public long totalNanos() {
+        long total = 0;
+        for (final Stage stage : stages) {
+            total += stage.nanos;
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        builder.append(String.format("%-24s %14s %14s %12s %14s%n", "stage", "in", "out", "selectivity", "self (us)"));
+        for (final Stage stage : stages) {
+            builder.append(String.format("%-24s %14d %14d %12.4f %14.1f%n",
+                stage.name, stage.elementsIn, stage.elementsOut, stage.selectivity(), stage.nanos / 1000.0));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * The runtime metrics of a single stage.
+     */
+    public static final class Stage {
+        private final String name;
+        private final long elementsIn;
+        private final long elementsOut;
+        private final long nanos;
+
+        Stage(final String name, final long elementsIn, final long elementsOut, final long nanos) {
+            this.name = name;
+            this.elementsIn = elementsIn;
+            this.elementsOut = elementsOut;
+            this.nanos = nanos;
+        }
+
+        /**
+         * Returns the name of the operation which created
+         * the stage or the type of the source.
+         *
+         * @return The name of the stage.
+         */
+        public String name() {
+            return name;
+        }
+
+        /**
+         * Returns the number of elements the stage pulled
+         * from the stage before it.
+         *
+         * @return The number of elements into the stage.
+         */
+        public long elementsIn() {
+            return elementsIn;
+        }
+
+        /**
+         * Returns the number of elements the stage produced.
+         *
+         * @return The number of elements out of the stage.
+         */
+        public long elementsOut() {
+            return elementsOut;
+        }
+
+        /**
+         * Returns the ratio of the elements out of the
+         * stage to the elements into the stage.
+         *
+         * @return The selectivity of the stage or
+         * {@link Double#NaN} if no elements entered it.
+         */
+        public double selectivity() {
+            return elementsIn == 0 ? Double.NaN : (double) elementsOut / elementsIn;
+        }
+
+        /**
+         * Returns the time spent in the stage, excluding the
+         * time spent in the stages before it.
+         *
+         * @return The time in nanoseconds.
+         */
+        public long nanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            return "Stage(" + name + ", " + elementsIn + ", " + elementsOut + ", " + nanos + ")";
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package up.stream;
+
+/**
+ * A listener which receives the runtime metrics
+ * of a {@linkplain Stream#profiled(ProfileListener) profiled}
+ * stream when a terminal operation finishes.
+ *
+ * @see PipelineProfile
+ */
+@FunctionalInterface
+public interface ProfileListener {
+    /**
+     * Called when a terminal operation of a profiled stream finishes.
+     *
+     * @param profile The metrics of each stage of the stream.
+     */
+    void onProfile(PipelineProfile profile);
+}
@@ -0,0 +1,91 @@
+package up.stream;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class Profiler {
+    private final ProfileListener listener;
+    private final List<Counters> stages;
+
+    private Profiler(final ProfileListener listener) {
+        this.listener = listener;
+        stages = new ArrayList<>();
+    }
+
+    static Counters root(final String name, final ProfileListener listener) {
+        final Profiler profiler = new Profiler(listener);
+        final Counters counters = new Counters(profiler, name, null);
+        profiler.stages.add(counters);
+        return counters;
+    }
+
+    // Stages are only wrapped if the stream they are created
+    // from is profiled, so unprofiled streams pay nothing
+
+    static <T> Stream<T> track(final Stream<?> upstream, final Stream<T> stage, final String name) {
+        final Counters counters = upstream.counters();
+        return counters == null ? stage : new StreamProfiled<>(stage, counters.downstream(name));
+    }
+
+    static <T> Stream<T> track(final BiStream<?, ?> upstream, final Stream<T> stage, final String name) {
+        final Counters counters = upstream.counters();
+        return counters == null ? stage : new StreamProfiled<>(stage, counters.downstream(name));
+    }
+
+    static <T, U> BiStream<T, U> track(final Stream<?> upstream, final BiStream<T, U> stage, final String name) {
+        final Counters counters = upstream.counters();
+        return counters == null ? stage : new BiStreamProfiled<>(stage, counters.downstream(name));
+    }
+
+    static <T, U> BiStream<T, U> track(final BiStream<?, ?> upstream, final BiStream<T, U> stage, final String name) {
+        final Counters counters = upstream.counters();
+        return counters == null ? stage : new BiStreamProfiled<>(stage, counters.downstream(name));
+    }
+
+    private void report() {
+        final List<PipelineProfile.Stage> res = new ArrayList<>(stages.size());
+        for (final Counters counters : stages) {
+            final Counters upstream = counters.upstream;
+            res.add(new PipelineProfile.Stage(
+                counters.name,
+                upstream == null ? counters.elements : upstream.elements,
+                counters.elements,
+                upstream == null ? counters.nanos : counters.nanos - upstream.nanos
+            ));
+        }
+        listener.onProfile(new PipelineProfile(res));
+    }
+
+    static final class Counters {
+        private final Profiler profiler;
+        private final String name;
+        private final Counters upstream;
+        private boolean hasDownstream;
+        long elements;
+        // Includes the time spent in the upstream stages
+        long nanos;
+
+        private Counters(final Profiler profiler, final String name, final Counters upstream) {
+            this.profiler = profiler;
+            this.name = name;
+            this.upstream = upstream;
+            hasDownstream = false;
+            elements = 0;
+            nanos = 0;
+        }
+
+        private Counters downstream(final String name) {
+            hasDownstream = true;
+            final Counters counters = new Counters(profiler, name, this);
+            profiler.stages.add(counters);
+            return counters;
+        }
+
+        void onClose() {
+            // Only the stage the terminal operation was called on reports
+            if (!hasDownstream) {
+                profiler.report();
+            }
+        }
+    }
+}
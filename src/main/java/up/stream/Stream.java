@@ -1,12 +1,38 @@
 package up.stream;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
 import java.util.function.*;
-
+import java.util.stream.Collector;
+
+import up.stream.function.LongObjConsumer;
+import up.stream.function.LongObjFunction;
+import up.stream.function.LongObjPredicate;
+import up.stream.util.CharSlice;
+import up.stream.util.HyperLogLog;
+import up.stream.util.MoreCollectors;
 import up.stream.util.Pair;
+import up.stream.util.QuantileSketch;
 
 /**
  * A possibly infinite sequence of lazily evaluated elements
@@ -73,6 +99,9 @@ import up.stream.util.Pair;
  * @param <T> The type of the elements.
  */
 public abstract class Stream<T> {
+    // Some virtual machines reserve header words in an array
+    private static final int MAX_BUFFER_SIZE = Integer.MAX_VALUE - 8;
+
     /**
      * Computes the {@link Optional} holding the next element in this stream.
      *
@@ -92,6 +121,51 @@ public abstract class Stream<T> {
      */
     protected abstract Stream<T> copy();
 
+    /**
+     * Skips the next {@code count} elements in this stream.
+     *
+     * <p>The default implementation computes and discards
+     * the elements. Streams which can skip elements without
+     * computing them should override this method.</p>
+     *
+     * @param count The number of elements to skip.
+     * @return The number of skipped elements. It is less
+     * than {@code count} only if this stream has ended.
+     */
+    protected long skip(final long count) {
+        long skipped = 0;
+        while (skipped < count && next().isPresent()) {
+            ++skipped;
+        }
+        return skipped;
+    }
+
+    /**
+     * Releases the resources held by this stream and
+     * the streams it pulls elements from.
+     *
+     * <p>Terminal operations close the stream when they finish,
+     * including when they finish before this stream has ended.
+     * Streams which pull elements from other streams must close
+     * them. Closing a stream more than once has no effect.</p>
+     *
+     * <p>The default implementation does nothing.</p>
+     */
+    protected void close() {
+        // No resources
+    }
+
+    // The number of elements left if it is known without
+    // pulling them, -1 otherwise. Used for presizing and skipping
+    long exactSize() {
+        return -1;
+    }
+
+    // Profiled streams return the counters of their stage
+    Profiler.Counters counters() {
+        return null;
+    }
+
 
 
     // Creators
@@ -257,6 +331,21 @@ public abstract class Stream<T> {
         return new StreamOfCollection<>(Objects.requireNonNull(collection));
     }
 
+    /**
+     * Creates a new stream of the elements of the iterable.
+     *
+     * <p>Each {@linkplain #copy() copy} of the stream
+     * iterates over the iterable again.</p>
+     *
+     * @param iterable The iterable.
+     * @param <T> The type of the elements.
+     * @return A new stream of the elements.
+     * @throws NullPointerException If the iterable is {@code null}.
+     */
+    public static <T> Stream<T> ofIterable(final Iterable<T> iterable) {
+        return new StreamOfIterable<>(Objects.requireNonNull(iterable));
+    }
+
     /**
      * Creates a new stream of pairs for each key and
      * its corresponding value in the map.
@@ -274,6 +363,88 @@ public abstract class Stream<T> {
         return new StreamOfMap<>(Objects.requireNonNull(map));
     }
 
+    /**
+     * Creates a new stream which takes the elements from
+     * the blocking queue as they are added to it.
+     *
+     * <p>The stream ends when the end marker is taken from the
+     * queue or when no element is added for the poll timeout.
+     * The marker ends only this stream, so several consumers can
+     * share the queue and each stop at its own marker. A blocked
+     * stream which is interrupted throws a
+     * {@link java.util.concurrent.CancellationException}.</p>
+     *
+     * <p>The elements are taken in small batches, so the lock of
+     * the queue isn't taken for each element. The elements of a
+     * batch can't be taken by other consumers of the queue, which
+     * trades some load balancing for fewer locks. A bounded queue
+     * is drained at most as far as it has room left, so a full
+     * queue is taken from one element at a time.</p>
+     *
+     * <p>When the stream ends at the marker or is closed early,
+     * for example by {@link #anyMatch(Predicate) anyMatch} or an
+     * exception, the elements of the batch which haven't been
+     * returned are put back into the queue. A
+     * {@link java.util.concurrent.BlockingDeque} gets them back at
+     * its head in their order, other queues at their tail, where
+     * they may end up behind markers added later. Consumers which
+     * share a queue and are stopped by markers should therefore use
+     * a deque. Closing waits at most the poll timeout for room in a
+     * bounded queue and throws an {@link IllegalStateException} if
+     * the elements don't fit, or a
+     * {@link java.util.concurrent.CancellationException} if it is
+     * interrupted.</p>
+     *
+     * <pre><code>
+     * Stream.fromQueue(jobs, Duration.ofMinutes(1), Job.SHUTDOWN)
+     *       .map(Job::run)
+     *       .forEach(results::publish);
+     * </code></pre>
+     *
+     * @param queue The queue to take the elements from.
+     * @param pollTimeout The time to wait for the next element.
+     * @param endMarker The element which ends the stream. It isn't
+     *                  part of the stream.
+     * @param <T> The type of the elements.
+     * @return A new stream of the elements added to the queue.
+     * @throws IllegalArgumentException If the poll timeout is negative.
+     * @throws NullPointerException If an argument is {@code null}.
+     */
+    public static <T> Stream<T> fromQueue(final BlockingQueue<T> queue, final Duration pollTimeout, final T endMarker) {
+        Objects.requireNonNull(queue);
+        Objects.requireNonNull(endMarker);
+        return new StreamOfBlockingQueue<>(queue, toNanos(pollTimeout), endMarker);
+    }
+
+    /**
+     * Creates a new stream which takes the elements from
+     * the non-blocking queue as they are added to it.
+     *
+     * <p>The stream ends when the end marker is taken from the queue
+     * or when the idle strategy stops waiting for the next element.
+     * The idle strategy decides how the stream waits while the
+     * queue is empty.</p>
+     *
+     * <pre><code>
+     * Stream.fromQueue(ticks, IdleStrategy.yielding(), Tick.CLOSE)
+     *       .forEach(book::apply);
+     * </code></pre>
+     *
+     * @param queue The queue to take the elements from.
+     * @param idleStrategy What to do while the queue is empty.
+     * @param endMarker The element which ends the stream. It isn't
+     *                  part of the stream.
+     * @param <T> The type of the elements.
+     * @return A new stream of the elements added to the queue.
+     * @throws NullPointerException If an argument is {@code null}.
+     */
+    public static <T> Stream<T> fromQueue(final Queue<T> queue, final IdleStrategy idleStrategy, final T endMarker) {
+        Objects.requireNonNull(queue);
+        Objects.requireNonNull(idleStrategy);
+        Objects.requireNonNull(endMarker);
+        return new StreamOfQueue<>(queue, idleStrategy, endMarker);
+    }
+
     /**
      * Creates a new stream of bytes of the values
      * in the given range (inclusive) with an
@@ -546,6 +717,233 @@ public abstract class Stream<T> {
         return new StreamIterate<>(seed, Objects.requireNonNull(mapper));
     }
 
+    /**
+     * Creates a new stream of the lines in the file
+     * decoded as UTF-8.
+     *
+     * @param path The path to the file.
+     * @return A stream of the lines in the file.
+     * @throws NullPointerException If the path is {@code null}.
+     *
+     * @see #lines(Path, Charset)
+     */
+    public static Stream<String> lines(final Path path) {
+        return lines(path, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Creates a new stream of the lines in the file
+     * decoded with the given charset.
+     *
+     * <p>A line is terminated by a line feed ({@code '\n'}),
+     * a carriage return ({@code '\r'}) or a carriage return
+     * followed by a line feed. The terminators are not a
+     * part of the lines.</p>
+     *
+     * <p>The file is memory-mapped in regions and the line
+     * terminators are searched for in the mapped bytes, so
+     * only the lines which are requested are decoded. The
+     * file is opened when the first element is requested.
+     * If the file can't be read, an {@link java.io.UncheckedIOException}
+     * is thrown at that point.</p>
+     *
+     * @param path The path to the file.
+     * @param charset The charset of the file. It must encode line
+     *                terminators as single bytes which are not a part
+     *                of any other character, such as UTF-8 or ISO-8859-1.
+     * @return A stream of the lines in the file.
+     * @throws IllegalArgumentException If the charset isn't supported.
+     * @throws NullPointerException If the path or the charset is {@code null}.
+     */
+    public static Stream<String> lines(final Path path, final Charset charset) {
+        if (!StreamLinesOfFile.isSupported(Objects.requireNonNull(charset))) {
+            throw new IllegalArgumentException("Unsupported charset: " + charset);
+        }
+        return new StreamLinesOfFile(Objects.requireNonNull(path), charset);
+    }
+
+    /**
+     * Creates a new stream of the characters in the sequence.
+     *
+     * <p>The characters are read from the sequence when they
+     * are requested, so changes to a mutable sequence, such as
+     * a {@link StringBuilder}, are visible through the stream.</p>
+     *
+     * @param text The sequence of characters.
+     * @return A stream of the characters in the sequence.
+     * @throws NullPointerException If the sequence is {@code null}.
+     */
+    public static Stream<Character> chars(final CharSequence text) {
+        return new StreamCharsOfText(Objects.requireNonNull(text));
+    }
+
+    /**
+     * Creates a new stream of the characters read from the reader.
+     *
+     * <p>The characters are read in blocks when they are requested.
+     * If the reader throws an {@link java.io.IOException}, it is
+     * rethrown as an {@link java.io.UncheckedIOException}. The
+     * reader is not closed by the stream.</p>
+     *
+     * @param reader The reader to read from.
+     * @return A stream of the characters read from the reader.
+     * @throws NullPointerException If the reader is {@code null}.
+     */
+    public static Stream<Character> chars(final Reader reader) {
+        return new StreamCharsOfReader(Objects.requireNonNull(reader));
+    }
+
+    /**
+     * Creates a new stream of the words in the sequence.
+     *
+     * <p>Words are the longest runs of characters which aren't
+     * {@linkplain Character#isWhitespace(char) whitespace}. They are
+     * {@linkplain CharSlice views} of the sequence, so no characters
+     * are copied.</p>
+     *
+     * <pre><code>
+     * Stream.words("the quick  brown\nfox")
+     *       .map(CharSlice::length)
+     *       .forEach(System.out::println); // 3, 5, 5, 3
+     * </code></pre>
+     *
+     * @param text The sequence of characters.
+     * @return A stream of the words in the sequence.
+     * @throws NullPointerException If the sequence is {@code null}.
+     */
+    public static Stream<CharSlice> words(final CharSequence text) {
+        return new StreamWordsOfText(Objects.requireNonNull(text));
+    }
+
+    /**
+     * Creates a new stream of the lines in the sequence.
+     *
+     * <p>A line is terminated by a line feed ({@code '\n'}),
+     * a carriage return ({@code '\r'}) or a carriage return
+     * followed by a line feed. The terminators are not a
+     * part of the lines. The lines are {@linkplain CharSlice views}
+     * of the sequence, so no characters are copied.</p>
+     *
+     * @param text The sequence of characters.
+     * @return A stream of the lines in the sequence.
+     * @throws NullPointerException If the sequence is {@code null}.
+     */
+    public static Stream<CharSlice> lines(final CharSequence text) {
+        return new StreamLinesOfText(Objects.requireNonNull(text));
+    }
+
+    /**
+     * Creates a new stream of the lines read from the reader.
+     *
+     * <p>The lines are read with {@link BufferedReader#readLine()}
+     * when they are requested. If the reader throws an
+     * {@link java.io.IOException}, it is rethrown as an
+     * {@link java.io.UncheckedIOException}. The reader is
+     * not closed by the stream.</p>
+     *
+     * @param reader The reader to read from.
+     * @return A stream of the lines read from the reader.
+     * @throws NullPointerException If the reader is {@code null}.
+     */
+    public static Stream<String> lines(final Reader reader) {
+        Objects.requireNonNull(reader);
+        return new StreamLinesOfReader(reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader));
+    }
+
+    /**
+     * Creates a new stream of the fixed-width records
+     * between the position and the limit of the buffer.
+     *
+     * <p>The records are {@linkplain ByteRecord views} of the
+     * buffer, so no bytes are copied. A single view is reused
+     * for all records, so it must not be kept after the next
+     * element has been requested. Trailing bytes which don't
+     * form a whole record are ignored.</p>
+     *
+     * <p>Records are read at absolute positions, so changing
+     * the position or the limit of the buffer doesn't affect
+     * the stream. {@link #drop(long) drop} and
+     * {@link #nth(long) nth} skip records without reading them.</p>
+     *
+     * <pre><code>
+     * // struct { int id; double price; }
+     * Stream.ofRecords(buffer, 12)
+     *       .select(record -&gt; record.getDouble(4) &gt; 100.0)
+     *       .map(record -&gt; record.getInt(0))
+     *       .forEach(System.out::println);
+     * </code></pre>
+     *
+     * @param buffer The buffer holding the records.
+     * @param recordSize The number of bytes in each record.
+     * @return A stream of the records in the buffer.
+     * @throws IllegalArgumentException If {@code recordSize} is less than 1.
+     * @throws NullPointerException If the buffer is {@code null}.
+     *
+     * @see ByteRecord
+     */
+    public static Stream<ByteRecord> ofRecords(final ByteBuffer buffer, final int recordSize) {
+        return new StreamOfRecords(Objects.requireNonNull(buffer), requirePositiveSize(recordSize));
+    }
+
+    /**
+     * Creates a new stream of the fixed-width records in the file.
+     *
+     * <p>The file is memory-mapped in regions and the records
+     * are {@linkplain ByteRecord views} of the mapped bytes, so
+     * no bytes are copied. A single view is reused for all records,
+     * so it must not be kept after the next element has been
+     * requested. Trailing bytes which don't form a whole record
+     * are ignored.</p>
+     *
+     * <p>The file is opened when the first element is requested.
+     * If the file can't be read, an {@link java.io.UncheckedIOException}
+     * is thrown at that point. {@link #drop(long) drop} and
+     * {@link #nth(long) nth} skip records without reading them.</p>
+     *
+     * @param path The path to the file.
+     * @param recordSize The number of bytes in each record.
+     * @param order The byte order of the fields in the records.
+     * @return A stream of the records in the file.
+     * @throws IllegalArgumentException If {@code recordSize} is less than 1.
+     * @throws NullPointerException If the path or the byte order is {@code null}.
+     *
+     * @see ByteRecord
+     */
+    public static Stream<ByteRecord> ofRecords(final Path path, final int recordSize, final ByteOrder order) {
+        return new StreamOfRecordFile(Objects.requireNonNull(path), requirePositiveSize(recordSize), Objects.requireNonNull(order));
+    }
+
+    /**
+     * Creates a new stream of the length-prefixed records
+     * between the position and the limit of the buffer.
+     *
+     * <p>Each record starts with an {@code int} holding the
+     * number of bytes which follow it. The records are
+     * {@linkplain ByteRecord views} of the bytes after the
+     * length, so no bytes are copied. A single view is reused
+     * for all records, so it must not be kept after the next
+     * element has been requested.</p>
+     *
+     * <p>Records are read at absolute positions, so changing
+     * the position or the limit of the buffer doesn't affect
+     * the stream. {@link #drop(long) drop} and
+     * {@link #nth(long) nth} read only the lengths of the
+     * skipped records.</p>
+     *
+     * <p>If a length is negative or exceeds the remaining bytes,
+     * an {@link IllegalStateException} is thrown when the
+     * record is requested.</p>
+     *
+     * @param buffer The buffer holding the records.
+     * @return A stream of the records in the buffer.
+     * @throws NullPointerException If the buffer is {@code null}.
+     *
+     * @see ByteRecord
+     */
+    public static Stream<ByteRecord> ofLengthPrefixedRecords(final ByteBuffer buffer) {
+        return new StreamOfLengthPrefixedRecords(Objects.requireNonNull(buffer));
+    }
+
 
 
     // Intermediate Operations
@@ -570,7 +968,7 @@ public abstract class Stream<T> {
      * @see BiStream
      */
     public <R, S> BiStream<R, S> biMap(final Function<? super T, ? extends Pair<R, S>> mapper) {
-        return new StreamBiMap<>(this, Objects.requireNonNull(mapper));
+        return Profiler.track(this, new StreamBiMap<>(this, Objects.requireNonNull(mapper)), "biMap");
     }
 
     /**
@@ -586,283 +984,2300 @@ public abstract class Stream<T> {
      * @throws NullPointerException if the mapper is {@code null}.
      */
     public <R> Stream<R> map(final Function<? super T, ? extends R> mapper) {
-        return new StreamMap<>(this, Objects.requireNonNull(mapper));
+        return Profiler.track(this, new StreamMap<>(this, Objects.requireNonNull(mapper), false), "map");
     }
 
     /**
-     * Filters this stream keeping all elements which fail
-     * the given predicate.
+     * Applies the given pure mapper function to each element and
+     * returns a new stream out of the results of the function.
+     *
+     * <p>Unlike {@link #map(Function) map}, the mapper is applied only
+     * to the elements which are requested. Skipped elements, for example
+     * by {@link #drop(long) drop}, {@link #nth(long) nth} or
+     * {@link #count() count}, are passed over without being mapped, so
+     * these operations stay cheap on sources which can skip elements.
+     * The mapper must therefore have no side effects and must
+     * not return {@code null}.</p>
+     *
+     * <pre><code>
+     * Stream.ofRecords(buffer, 12)
+     *       .mapPure(record -&gt; record.getDouble(4))
+     *       .nth(1_000_000)
+     * </code></pre>
      *
      * <p>This is an intermediate operation.</p>
      *
-     * @param predicate The predicate to test against.
-     * @return A stream containing all elements which failed
-     * the test.
-     * @throws NullPointerException If the predicate is {@code null}.
+     * @param mapper The function to apply. It must have no side
+     *               effects and must not return {@code null}.
+     * @param <R> The type of the new elements.
+     * @return A stream with each element from this one mapped
+     * according to the mapper function.
+     * @throws NullPointerException if the mapper is {@code null}.
      */
-    public Stream<T> reject(final Predicate<? super T> predicate) {
-        return new StreamReject<>(this, Objects.requireNonNull(predicate));
+    public <R> Stream<R> mapPure(final Function<? super T, ? extends R> mapper) {
+        return Profiler.track(this, new StreamMap<>(this, Objects.requireNonNull(mapper), true), "mapPure");
     }
 
     /**
-     * Filters this stream keeping all elements which pass
-     * the given predicate.
+     * Maps each element of this stream together with its index.
+     *
+     * <p>Indices start from 0. The index is passed to the
+     * mapper as a {@code long}, without creating pairs
+     * as {@link #enumerate()} does.</p>
+     *
+     * <pre><code>
+     * Stream.ofCollection(lines)
+     *       .mapIndexed((index, line) -&gt; (index + 1) + ": " + line)
+     * </code></pre>
      *
      * <p>This is an intermediate operation.</p>
      *
-     * @param predicate The predicate to test against.
-     * @return A stream containing all elements which
-     * passed the predicate.
-     * @throws NullPointerException If the predicate is {@code null}.
+     * @param mapper The mapper which accepts
+     *               the index and the element.
+     * @param <R> The type of the mapped elements.
+     * @return A stream of the mapped elements.
+     * @throws NullPointerException If the mapper is {@code null}.
      */
-    public Stream<T> select(final Predicate<? super T> predicate) {
-        return new StreamReject<>(this, Objects.requireNonNull(predicate).negate());
+    public <R> Stream<R> mapIndexed(final LongObjFunction<? super T, ? extends R> mapper) {
+        return Profiler.track(this, new StreamMapIndexed<>(this, Objects.requireNonNull(mapper)), "mapIndexed");
     }
 
     /**
-     * Filters this stream keeping only the unique values.
+     * Maps each element of this stream to a stream
+     * and flattens the streams into a new stream.
+     *
+     * <p>The inner streams are pulled lazily, one at a time, and
+     * each is {@linkplain #close() closed} when it ends. If the
+     * mapper returns {@code null}, it is treated as an empty stream.</p>
+     *
+     * <p>Flat maps applied one after another, as in
+     * {@code .flatMap(f).flatMap(g)}, are merged into one stage
+     * unless the stream is {@linkplain #profiled(ProfileListener)
+     * profiled}. Inner streams whose last stage is a flat map which
+     * hasn't been pulled yet, profiled or not, are flattened into
+     * this stream. Recursive flat maps of these shapes can be nested
+     * arbitrarily deep. Any other stage between them, such as a
+     * {@link #map(Function) map} after an inner flat map, is pulled
+     * through as usual.</p>
+     *
+     * <pre><code>
+     * Stream.ofCollection(departments)
+     *       .flatMap(department -&gt; Stream.ofCollection(department.employees()))
+     *       .take(5);
+     * </code></pre>
      *
      * <p>This is an intermediate operation.</p>
      *
-     * @return A stream containing only unique values.
+     * @param mapper The mapper.
+     * @param <R> The type of the elements of the inner streams.
+     * @return A stream of the elements of the inner streams.
+     * @throws NullPointerException If the mapper is {@code null}.
      */
-    public Stream<T> unique() {
-        return new StreamUnique<>(this);
+    public <R> Stream<R> flatMap(final Function<? super T, ? extends Stream<? extends R>> mapper) {
+        return Profiler.track(this, new StreamFlatMap<>(this, Objects.requireNonNull(mapper)), "flatMap");
     }
 
     /**
-     * Drops the specified number of elements
-     * from the beginning of this stream.
+     * Maps each element of this stream to an iterable
+     * and flattens the iterables into a new stream.
+     *
+     * <p>The iterables are iterated lazily, one element at a time.
+     * If the mapper returns {@code null}, it is treated as an
+     * empty iterable.</p>
      *
      * <p>This is an intermediate operation.</p>
      *
-     * @param count The number of elements to drop.
-     * @return A stream without the first number
-     * of elements specified.
+     * @param mapper The mapper.
+     * @param <R> The type of the elements of the iterables.
+     * @return A stream of the elements of the iterables.
+     * @throws NullPointerException If the mapper is {@code null}.
+     * @see #flatMap(Function)
      */
-    public Stream<T> drop(final long count) {
-        return new StreamDrop<>(this, count);
+    public <R> Stream<R> flatMapIterable(final Function<? super T, ? extends Iterable<? extends R>> mapper) {
+        Objects.requireNonNull(mapper);
+        final Function<T, Stream<? extends R>> toStream = elem -> {
+            final Iterable<? extends R> iterable = mapper.apply(elem);
+            return iterable == null ? null : new StreamOfIterable<>(iterable);
+        };
+        return Profiler.track(this, new StreamFlatMap<>(this, toStream), "flatMapIterable");
     }
 
     /**
-     * Drops elements from the beginning of this stream
-     * until an element which passes the predicate is
-     * found.
+     * Maps each element of this stream to an array
+     * and flattens the arrays into a new stream.
      *
-     * Even if an element which fails the predicate is
-     * found later, it won't be dropped.
+     * <p>If the mapper returns {@code null}, it is
+     * treated as an empty array.</p>
      *
      * <p>This is an intermediate operation.</p>
      *
-     * @param predicate The predicate to test against.
-     * @return A stream with the first sequence of
-     * elements failing the predicate dropped.
-     * @throws NullPointerException If the predicate is {@code null}.
+     * @param mapper The mapper.
+     * @param <R> The type of the elements of the arrays.
+     * @return A stream of the elements of the arrays.
+     * @throws NullPointerException If the mapper is {@code null}.
+     * @see #flatMap(Function)
      */
-    public Stream<T> dropUntil(final Predicate<? super T> predicate) {
-        return new StreamDropWhile<>(this, Objects.requireNonNull(predicate).negate());
+    public <R> Stream<R> flatMapArray(final Function<? super T, ? extends R[]> mapper) {
+        Objects.requireNonNull(mapper);
+        final Function<T, Stream<? extends R>> toStream = elem -> {
+            final R[] array = mapper.apply(elem);
+            return array == null ? null : new StreamOfArray<>(array);
+        };
+        return Profiler.track(this, new StreamFlatMap<>(this, toStream), "flatMapArray");
     }
 
     /**
-     * Drops elements from the beginning of this stream
-     * until an element which fails the predicate is
-     * found.
-     *
-     * Even if an element which passes the predicate
-     * is found later, it won't be dropped.
+     * Replaces each element of this stream with
+     * the elements the mapper passes to the consumer.
+     *
+     * <p>Unlike {@link #flatMap(Function) flatMap}, no inner
+     * stream is created: the mapper pushes any number of elements
+     * into a consumer which is reused for all elements.</p>
+     *
+     * <pre><code>
+     * Stream.ofCollection(orders)
+     *       .&lt;Item&gt;mapMulti((order, sink) -&gt; {
+     *           for (final Item item : order.items()) {
+     *               sink.accept(item);
+     *           }
+     *       });
+     * </code></pre>
      *
      * <p>This is an intermediate operation.</p>
      *
-     * @param predicate The predicate to test against.
-     * @return A stream with the first sequence of
-     * elements passing the predicate dropped.
-     * @throws NullPointerException If the predicate is {@code null}.
+     * @param mapper The mapper which passes the
+     *               replacing elements to the consumer.
+     * @param <R> The type of the replacing elements.
+     * @return A stream of the replacing elements.
+     * @throws NullPointerException If the mapper is {@code null}.
      */
-    public Stream<T> dropWhile(final Predicate<? super T> predicate) {
-        return new StreamDropWhile<>(this, Objects.requireNonNull(predicate));
+    public <R> Stream<R> mapMulti(final BiConsumer<? super T, ? super Consumer<R>> mapper) {
+        return Profiler.track(this, new StreamMapMulti<>(this, Objects.requireNonNull(mapper)), "mapMulti");
     }
 
     /**
-     * Takes the first {@code count} elements from
-     * this stream and discards the rest.
+     * Applies the given mapper function to each element on the
+     * executor and returns a new stream out of the results of the
+     * function in the order of the elements.
+     *
+     * <p>Up to {@code maxInFlight} calls of the mapper run at the
+     * same time. A result is returned only after the results of all
+     * previous elements, so a slow call delays the elements after it.
+     * {@link #mapConcurrentUnordered(int, Executor, Function)
+     * mapConcurrentUnordered} can be used if the order doesn't
+     * matter.</p>
+     *
+     * <p>If the mapper throws an exception, the calls which haven't
+     * started yet are cancelled and the exception is rethrown when
+     * its result is requested. The calls which haven't started are
+     * also cancelled when the stream is {@linkplain #close() closed}.</p>
+     *
+     * <pre><code>
+     * Stream.ofCollection(userIds)
+     *       .mapConcurrent(32, executor, userService::fetch)
+     *       .forEach(System.out::println);
+     * </code></pre>
      *
      * <p>This is an intermediate operation.</p>
      *
-     * @param count The number of elements to take.
-     * @return A stream with the first {@code count}
-     * elements from this stream.
+     * @param maxInFlight The maximum number of concurrent calls.
+     * @param executor The executor to call the mapper on.
+     * @param mapper The function to apply.
+     * @param <R> The type of the new elements.
+     * @return A stream with each element from this one mapped
+     * according to the mapper function.
+     * @throws IllegalArgumentException If {@code maxInFlight} is less than 1.
+     * @throws NullPointerException If the executor or the mapper is {@code null}.
      */
-    public Stream<T> take(final long count) {
-        return new StreamTake<>(this, count);
+    public <R> Stream<R> mapConcurrent(final int maxInFlight, final Executor executor, final Function<? super T, ? extends R> mapper) {
+        return Profiler.track(this, new StreamMapConcurrent<>(this, requirePositiveSize(maxInFlight), Objects.requireNonNull(executor), Objects.requireNonNull(mapper)), "mapConcurrent");
     }
 
     /**
-     * Takes elements from this stream until an
-     * element which passes the predicate is found.
+     * Applies the given mapper function to each element on the
+     * executor and returns a new stream out of the results of the
+     * function in the order in which the calls complete.
+     *
+     * <p>Up to {@code maxInFlight} calls of the mapper run at the
+     * same time. If the mapper throws an exception, the calls which
+     * haven't started yet are cancelled and the exception is rethrown
+     * when its result is requested. The calls which haven't started
+     * are also cancelled when the stream is {@linkplain #close() closed}.</p>
      *
      * <p>This is an intermediate operation.</p>
      *
-     * @param predicate The predicate to test against.
-     * @return A stream with the first sequence of
-     * elements which fail the predicate.
-     * @throws NullPointerException If the predicate is {@code null}.
+     * @param maxInFlight The maximum number of concurrent calls.
+     * @param executor The executor to call the mapper on.
+     * @param mapper The function to apply.
+     * @param <R> The type of the new elements.
+     * @return A stream with each element from this one mapped
+     * according to the mapper function.
+     * @throws IllegalArgumentException If {@code maxInFlight} is less than 1.
+     * @throws NullPointerException If the executor or the mapper is {@code null}.
+     *
+     * @see #mapConcurrent(int, Executor, Function)
      */
-    public Stream<T> takeUntil(final Predicate<? super T> predicate) {
-        return new StreamTakeWhile<>(this, Objects.requireNonNull(predicate).negate());
+    public <R> Stream<R> mapConcurrentUnordered(final int maxInFlight, final Executor executor, final Function<? super T, ? extends R> mapper) {
+        return Profiler.track(this, new StreamMapConcurrentUnordered<>(this, requirePositiveSize(maxInFlight), Objects.requireNonNull(executor), Objects.requireNonNull(mapper)), "mapConcurrentUnordered");
     }
 
     /**
-     * Takes elements from this stream while they
-     * pass the predicate.
+     * Combines each element with the result of combining
+     * the elements before it and returns a new stream out
+     * of the results.
+     *
+     * <p>The first element is returned unchanged.</p>
+     *
+     * <pre><code>
+     * Stream.of(1, 2, 3, 4).scanLeft(Integer::sum) // [1, 3, 6, 10]
+     * </code></pre>
      *
      * <p>This is an intermediate operation.</p>
      *
-     * @param predicate The predicate to test against.
-     * @return A stream with the first sequence of
-     * elements which pass the predicate.
-     * @throws NullPointerException If the predicate is {@code null}.
+     * @param operator The operator which combines the previous
+     *                 result with the current element.
+     * @return A stream of the running results.
+     * @throws NullPointerException If the operator is {@code null}.
+     * @see #scanLeft(Object, BiFunction)
+     * @see #scanLeftToArray(BinaryOperator, IntFunction)
      */
-    public Stream<T> takeWhile(final Predicate<? super T> predicate) {
-        return new StreamTakeWhile<>(this, Objects.requireNonNull(predicate));
+    public Stream<T> scanLeft(final BinaryOperator<T> operator) {
+        return Profiler.track(this, new StreamScanLeft<T, T>(this, null, false, Objects.requireNonNull(operator)), "scanLeft");
     }
 
     /**
-     * Cycles this stream infinitely many times.
+     * Combines each element with the result of combining
+     * the elements before it, starting from the seed, and
+     * returns a new stream out of the seed and the results.
+     *
+     * <pre><code>
+     * Stream.of("a", "b", "c").scanLeft("", String::concat) // ["", "a", "ab", "abc"]
+     * </code></pre>
      *
      * <p>This is an intermediate operation.</p>
      *
-     * @return A stream with this stream's elements cycled.
+     * @param seed The first result.
+     * @param accumulator The function which combines the
+     *                    previous result with the current element.
+     * @param <R> The type of the results.
+     * @return A stream of the seed and the running results.
+     * @throws NullPointerException If the seed or
+     * the accumulator is {@code null}.
      */
-    public Stream<T> cycle() {
-        return new StreamCycle<>(this, -1);
+    public <R> Stream<R> scanLeft(final R seed, final BiFunction<? super R, ? super T, ? extends R> accumulator) {
+        Objects.requireNonNull(seed);
+        Objects.requireNonNull(accumulator);
+        return Profiler.track(this, new StreamScanLeft<>(this, seed, true, accumulator), "scanLeft");
     }
 
     /**
-     * Cycles this stream the specified number
-     * of times. If {@code times} is less than 1,
-     * an {@linkplain #empty() empty stream} will
-     * be returned.
+     * Combines each element with the result of combining
+     * the elements after it and returns a new stream out
+     * of the results.
+     *
+     * <p>The last element is returned unchanged. All elements
+     * are pulled and kept when the first result is requested.</p>
+     *
+     * <pre><code>
+     * Stream.of(1, 2, 3, 4).scanRight(Integer::sum) // [10, 9, 7, 4]
+     * </code></pre>
      *
      * <p>This is an intermediate operation.</p>
      *
-     * @param times The number of times to cycle
-     *              the elements.
-     * @return A stream with this stream's elements cycled.
+     * @param operator The operator which combines the current
+     *                 element with the next result.
+     * @return A stream of the running results.
+     * @throws NullPointerException If the operator is {@code null}.
      */
-    public Stream<T> repeat(final long times) {
-        return times < 1 ? empty() : new StreamRepeat<>(this, times);
+    public Stream<T> scanRight(final BinaryOperator<T> operator) {
+        return Profiler.track(this, new StreamScanRight<T, T>(this, null, false, Objects.requireNonNull(operator)), "scanRight");
     }
 
     /**
-     * Enumerates this stream's elements into a new stream of pairs.
+     * Combines each element with the result of combining
+     * the elements after it, starting from the seed, and
+     * returns a new stream out of the results and the seed.
      *
-     * <p>Indices for the new stream start from 0.</p>
+     * <p>All elements are pulled and kept when
+     * the first result is requested.</p>
      *
-     * <p>The result will be a stream with specialized
-     * methods for working with pairs of values.</p>
+     * <pre><code>
+     * Stream.of("a", "b", "c").scanRight("", String::concat) // ["abc", "bc", "c", ""]
+     * </code></pre>
      *
      * <p>This is an intermediate operation.</p>
      *
-     * @return An enumerated stream.
+     * @param seed The last result.
+     * @param accumulator The function which combines the
+     *                    current element with the next result.
+     * @param <R> The type of the results.
+     * @return A stream of the running results and the seed.
+     * @throws NullPointerException If the seed or
+     * the accumulator is {@code null}.
      */
-    public BiStream<Long, T> enumerate() {
-        return new StreamEnumerate<>(this);
+    public <R> Stream<R> scanRight(final R seed, final BiFunction<? super T, ? super R, ? extends R> accumulator) {
+        Objects.requireNonNull(seed);
+        Objects.requireNonNull(accumulator);
+        return Profiler.track(this, new StreamScanRight<>(this, seed, true, accumulator), "scanRight");
     }
 
     /**
-     * Applies an action to each element without altering it.
+     * Returns a stream of the sums of the values of
+     * each element and all elements before it.
+     *
+     * <p>The sum is kept as a {@code long}, only the
+     * returned sums are boxed.</p>
+     *
+     * <pre><code>
+     * Stream.ofCollection(orders).runningSum(Order::quantity)
+     * </code></pre>
      *
      * <p>This is an intermediate operation.</p>
      *
-     * @param action The action to apply.
-     * @return An unaltered stream.
-     * @throws NullPointerException If the action is {@code null}.
+     * @param mapper The function which computes the value of an element.
+     * @return A stream of the running sums.
+     * @throws NullPointerException If the mapper is {@code null}.
+     * @see #runningSumToArray(ToLongFunction)
      */
-    public Stream<T> inspect(final Consumer<? super T> action) {
-        return new StreamInspect<>(this, Objects.requireNonNull(action));
+    public Stream<Long> runningSum(final ToLongFunction<? super T> mapper) {
+        return Profiler.track(this, new StreamRunningSum<>(this, Objects.requireNonNull(mapper)), "runningSum");
     }
 
-
-
-    // Terminal Operations
-
     /**
-     * Checks if all elements in this stream pass
-     * the predicate.
+     * Returns a stream of the numbers of elements which pass
+     * the predicate up to and including each element.
      *
-     * <p>This is a terminal operation.</p>
+     * <pre><code>
+     * Stream.of(3, 1, 4, 1, 5).runningCount(i -&gt; i % 2 == 1) // [1, 2, 2, 3, 4]
+     * </code></pre>
      *
-     * @param predicate The predicate to check against.
-     * @return Whether all elements pass the predicate.
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param predicate The predicate to test against.
+     * @return A stream of the running counts.
      * @throws NullPointerException If the predicate is {@code null}.
      */
-    public boolean allMatch(final Predicate<? super T> predicate) {
+    public Stream<Long> runningCount(final Predicate<? super T> predicate) {
         Objects.requireNonNull(predicate);
-        for (Optional<T> curr = next(); curr.isPresent(); curr = next()) {
-            if (!predicate.test(curr.get())) {
-                return false;
-            }
-        }
-        return true;
+        return Profiler.track(this, new StreamRunningSum<T>(this, elem -> predicate.test(elem) ? 1 : 0), "runningCount");
     }
 
     /**
-     * Checks if any of the elements in this stream
-     * passes the predicate.
+     * Filters this stream keeping all elements which fail
+     * the given predicate.
      *
-     * <p>This is a terminal operation.</p>
+     * <p>This is an intermediate operation.</p>
      *
-     * @param predicate The predicate to check against.
-     * @return Whether any element passes the predicate.
+     * @param predicate The predicate to test against.
+     * @return A stream containing all elements which failed
+     * the test.
      * @throws NullPointerException If the predicate is {@code null}.
      */
-    public boolean anyMatch(final Predicate<? super T> predicate) {
-        Objects.requireNonNull(predicate);
-        for (Optional<T> curr = next(); curr.isPresent(); curr = next()) {
-            if (predicate.test(curr.get())) {
-                return true;
-            }
-        }
-        return false;
+    public Stream<T> reject(final Predicate<? super T> predicate) {
+        return Profiler.track(this, new StreamReject<>(this, Objects.requireNonNull(predicate)), "reject");
     }
 
     /**
-     * Checks if none of the elements in this stream
-     * passes the predicate.
+     * Filters this stream keeping all elements which pass
+     * the given predicate.
      *
-     * <p>This is a terminal operation.</p>
+     * <p>This is an intermediate operation.</p>
      *
-     * @param predicate The predicate to check against.
-     * @return Whether no element passes the predicate.
+     * @param predicate The predicate to test against.
+     * @return A stream containing all elements which
+     * passed the predicate.
      * @throws NullPointerException If the predicate is {@code null}.
      */
-    public boolean noneMatch(final Predicate<? super T> predicate) {
-        return allMatch(Objects.requireNonNull(predicate).negate());
+    public Stream<T> select(final Predicate<? super T> predicate) {
+        return Profiler.track(this, new StreamReject<>(this, Objects.requireNonNull(predicate).negate()), "select");
     }
 
     /**
-     * Checks if this stream contains no elements.
+     * Filters this stream discarding all elements which
+     * pass the given predicate together with their index.
      *
-     * <p>This is a terminal operation.</p>
+     * <p>Indices start from 0 and count all elements of
+     * this stream, including the discarded ones.</p>
      *
-     * @return Whether this stream is empty.
-     */
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param predicate The predicate which accepts
+     *                  the index and the element.
+     * @return A stream containing all elements which
+     * failed the predicate.
+     * @throws NullPointerException If the predicate is {@code null}.
+     */
+    public Stream<T> rejectIndexed(final LongObjPredicate<? super T> predicate) {
+        return Profiler.track(this, new StreamRejectIndexed<>(this, Objects.requireNonNull(predicate)), "rejectIndexed");
+    }
+
+    /**
+     * Filters this stream keeping all elements which
+     * pass the given predicate together with their index.
+     *
+     * <p>Indices start from 0 and count all elements of
+     * this stream, including the discarded ones.</p>
+     *
+     * <pre><code>
+     * Stream.ofCollection(rows)
+     *       .selectIndexed((index, row) -&gt; index % pageSize == 0)
+     * </code></pre>
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param predicate The predicate which accepts
+     *                  the index and the element.
+     * @return A stream containing all elements which
+     * passed the predicate.
+     * @throws NullPointerException If the predicate is {@code null}.
+     */
+    public Stream<T> selectIndexed(final LongObjPredicate<? super T> predicate) {
+        return Profiler.track(this, new StreamRejectIndexed<>(this, Objects.requireNonNull(predicate).negate()), "selectIndexed");
+    }
+
+    /**
+     * Filters this stream keeping only the unique values.
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @return A stream containing only unique values.
+     */
+    public Stream<T> unique() {
+        return Profiler.track(this, new StreamUnique<>(this), "unique");
+    }
+
+    /**
+     * Filters this stream discarding each element
+     * which is equal to the element before it.
+     *
+     * <p>Unlike {@link #unique()}, only the previous element is
+     * kept, so equal elements which aren't adjacent are all kept.
+     * On sorted streams both operations give the same result.</p>
+     *
+     * <pre><code>
+     * Stream.of(1, 1, 2, 2, 2, 1, 3).dedupeConsecutive() // [1, 2, 1, 3]
+     * </code></pre>
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @return A stream without adjacent equal elements.
+     * @see #dedupeConsecutiveBy(Function)
+     */
+    public Stream<T> dedupeConsecutive() {
+        return Profiler.track(this, new StreamDedupeConsecutive<T, T>(this, Function.identity()), "dedupeConsecutive");
+    }
+
+    /**
+     * Filters this stream discarding each element whose key
+     * is equal to the key of the element before it.
+     *
+     * <pre><code>
+     * Stream.ofCollection(statusChanges)
+     *       .dedupeConsecutiveBy(Status::state)
+     * </code></pre>
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param keyExtractor The function which computes the key of an element.
+     * @param <K> The type of the keys.
+     * @return A stream without adjacent elements with equal keys.
+     * @throws NullPointerException If the key extractor is {@code null}.
+     */
+    public <K> Stream<T> dedupeConsecutiveBy(final Function<? super T, ? extends K> keyExtractor) {
+        return Profiler.track(this, new StreamDedupeConsecutive<>(this, Objects.requireNonNull(keyExtractor)), "dedupeConsecutiveBy");
+    }
+
+    /**
+     * Drops the specified number of elements
+     * from the beginning of this stream.
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param count The number of elements to drop.
+     * @return A stream without the first number
+     * of elements specified.
+     */
+    public Stream<T> drop(final long count) {
+        return Profiler.track(this, new StreamDrop<>(this, count), "drop");
+    }
+
+    /**
+     * Drops elements from the beginning of this stream
+     * until an element which passes the predicate is
+     * found.
+     *
+     * Even if an element which fails the predicate is
+     * found later, it won't be dropped.
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param predicate The predicate to test against.
+     * @return A stream with the first sequence of
+     * elements failing the predicate dropped.
+     * @throws NullPointerException If the predicate is {@code null}.
+     */
+    public Stream<T> dropUntil(final Predicate<? super T> predicate) {
+        return Profiler.track(this, new StreamDropWhile<>(this, Objects.requireNonNull(predicate).negate()), "dropUntil");
+    }
+
+    /**
+     * Drops elements from the beginning of this stream
+     * until an element which fails the predicate is
+     * found.
+     *
+     * Even if an element which passes the predicate
+     * is found later, it won't be dropped.
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param predicate The predicate to test against.
+     * @return A stream with the first sequence of
+     * elements passing the predicate dropped.
+     * @throws NullPointerException If the predicate is {@code null}.
+     */
+    public Stream<T> dropWhile(final Predicate<? super T> predicate) {
+        return Profiler.track(this, new StreamDropWhile<>(this, Objects.requireNonNull(predicate)), "dropWhile");
+    }
+
+    /**
+     * Takes the first {@code count} elements from
+     * this stream and discards the rest.
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param count The number of elements to take.
+     * @return A stream with the first {@code count}
+     * elements from this stream.
+     */
+    public Stream<T> take(final long count) {
+        return Profiler.track(this, new StreamTake<>(this, count), "take");
+    }
+
+    /**
+     * Takes elements from this stream until an
+     * element which passes the predicate is found.
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param predicate The predicate to test against.
+     * @return A stream with the first sequence of
+     * elements which fail the predicate.
+     * @throws NullPointerException If the predicate is {@code null}.
+     */
+    public Stream<T> takeUntil(final Predicate<? super T> predicate) {
+        return Profiler.track(this, new StreamTakeWhile<>(this, Objects.requireNonNull(predicate).negate()), "takeUntil");
+    }
+
+    /**
+     * Takes elements from this stream while they
+     * pass the predicate.
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param predicate The predicate to test against.
+     * @return A stream with the first sequence of
+     * elements which pass the predicate.
+     * @throws NullPointerException If the predicate is {@code null}.
+     */
+    public Stream<T> takeWhile(final Predicate<? super T> predicate) {
+        return Profiler.track(this, new StreamTakeWhile<>(this, Objects.requireNonNull(predicate)), "takeWhile");
+    }
+
+    /**
+     * Cycles this stream infinitely many times.
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @return A stream with this stream's elements cycled.
+     */
+    public Stream<T> cycle() {
+        return Profiler.track(this, new StreamCycle<>(this, -1), "cycle");
+    }
+
+    /**
+     * Cycles this stream the specified number
+     * of times. If {@code times} is less than 1,
+     * an {@linkplain #empty() empty stream} will
+     * be returned.
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param times The number of times to cycle
+     *              the elements.
+     * @return A stream with this stream's elements cycled.
+     */
+    public Stream<T> repeat(final long times) {
+        return times < 1 ? empty() : Profiler.track(this, new StreamRepeat<>(this, times), "repeat");
+    }
+
+    /**
+     * Adds the elements of another stream after
+     * the elements of this stream.
+     *
+     * <p>Concatenations are flattened, so appending streams
+     * in a loop doesn't make pulling each element slower and
+     * doesn't nest streams into each other.</p>
+     *
+     * <pre><code>
+     * Stream&lt;Event&gt; events = Stream.empty();
+     * for (final Source source : sources) {
+     *     events = events.append(source.events());
+     * }
+     * </code></pre>
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param other The stream to append.
+     * @return A stream with the elements of this
+     * stream followed by the elements of the other.
+     * @throws NullPointerException If the other stream is {@code null}.
+     */
+    public Stream<T> append(final Stream<? extends T> other) {
+        return Profiler.track(this, StreamConcat.of(this, Objects.requireNonNull(other)), "append");
+    }
+
+    /**
+     * Adds the elements of another stream before
+     * the elements of this stream.
+     *
+     * <p>Concatenations are flattened as with
+     * {@link #append(Stream) append}.</p>
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param other The stream to prepend.
+     * @return A stream with the elements of the other
+     * stream followed by the elements of this stream.
+     * @throws NullPointerException If the other stream is {@code null}.
+     */
+    public Stream<T> prepend(final Stream<? extends T> other) {
+        return Profiler.track(this, StreamConcat.of(Objects.requireNonNull(other), this), "prepend");
+    }
+
+    /**
+     * Inserts the elements of another stream before
+     * the element at the specified index of this stream.
+     *
+     * <p>If this stream has fewer elements than the index,
+     * the elements are inserted after its last element.</p>
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param index The index to insert the elements at.
+     * @param other The stream to insert.
+     * @return A stream with the elements of the other
+     * stream inserted.
+     * @throws IllegalArgumentException If the index is negative.
+     * @throws NullPointerException If the other stream is {@code null}.
+     */
+    public Stream<T> insertAt(final long index, final Stream<? extends T> other) {
+        if (index < 0) {
+            throw new IllegalArgumentException("Index must not be negative: " + index);
+        }
+        return Profiler.track(this, new StreamInsertAt<>(this, index, Objects.requireNonNull(other)), "insertAt");
+    }
+
+    /**
+     * Inserts the separator between each two
+     * consecutive elements of this stream.
+     *
+     * <pre><code>
+     * Stream.of("a", "b", "c").interpose("-") // ["a", "-", "b", "-", "c"]
+     * </code></pre>
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param separator The element to insert.
+     * @return A stream with the separator
+     * between its elements.
+     * @throws NullPointerException If the separator is {@code null}.
+     */
+    public Stream<T> interpose(final T separator) {
+        return Profiler.track(this, new StreamInterpose<>(this, Objects.requireNonNull(separator)), "interpose");
+    }
+
+    /**
+     * Pairs the first element of each run of equal
+     * adjacent elements with the length of the run.
+     *
+     * <pre><code>
+     * Stream.ofCharArray("aaabccdd".toCharArray()).runLengths() // [a -&gt; 3, b -&gt; 1, c -&gt; 2, d -&gt; 2]
+     * </code></pre>
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @return A stream of the runs and their lengths.
+     * @see #dedupeConsecutive()
+     */
+    public BiStream<T, Long> runLengths() {
+        return Profiler.track(this, new StreamRunLengths<>(this), "runLengths");
+    }
+
+    /**
+     * Splits this stream into several streams which
+     * all have the elements of this stream.
+     *
+     * <p>This stream is computed only once. The elements which
+     * some branches have already returned but others haven't are
+     * buffered, so the buffer grows as far as the branches drift
+     * apart. This stream is closed when all branches are closed.</p>
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param count The number of branches.
+     * @return A list of the branches.
+     * @throws IllegalArgumentException If the count is less than 1.
+     * @see #tee(int, int, OverflowPolicy)
+     */
+    public List<Stream<T>> tee(final int count) {
+        return tee(count, 16, OverflowPolicy.GROW);
+    }
+
+    /**
+     * Splits this stream into several streams which
+     * all have the elements of this stream.
+     *
+     * <p>This stream is computed only once. The elements which
+     * some branches have already returned but others haven't are
+     * buffered. When the buffer is full, the policy decides what
+     * the branch which is the furthest ahead does. This stream is
+     * closed when all branches are closed.</p>
+     *
+     * <p>The branches may be read on different threads. This stream
+     * is pulled by one branch at a time, and the other branches can
+     * return buffered elements while it computes the next one.</p>
+     *
+     * <pre><code>
+     * final List&lt;Stream&lt;Event&gt;&gt; branches =
+     *     Stream.lines(eventLog)
+     *           .map(Event::parse)
+     *           .tee(2, 1024, OverflowPolicy.BLOCK);
+     *
+     * executor.execute(() -&gt; branches.get(0).forEach(archive::write));
+     * executor.execute(() -&gt; branches.get(1).select(Event::isError).forEach(alerts::send));
+     * </code></pre>
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param count The number of branches.
+     * @param bufferSize The number of buffered elements
+     *                   at which the policy applies.
+     * @param policy What to do when the buffer is full.
+     * @return A list of the branches.
+     * @throws IllegalArgumentException If the count or
+     * the buffer size is less than 1.
+     * @throws NullPointerException If the policy is {@code null}.
+     */
+    public List<Stream<T>> tee(final int count, final int bufferSize, final OverflowPolicy policy) {
+        final StreamTee.Source<T> source = new StreamTee.Source<>(this, requirePositiveSize(count), requirePositiveSize(bufferSize), Objects.requireNonNull(policy));
+        final List<Stream<T>> res = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            res.add(Profiler.track(this, new StreamTee<>(source, i), "tee"));
+        }
+        return res;
+    }
+
+    /**
+     * Splits this stream into the elements which pass
+     * the predicate and the elements which fail it.
+     *
+     * <p>This stream is computed only once and the predicate
+     * is tested once for each element. The elements are
+     * buffered as in {@link #tee(int)}.</p>
+     *
+     * <pre><code>
+     * final Pair&lt;Stream&lt;Integer&gt;, Stream&lt;Integer&gt;&gt; parts =
+     *     Stream.of(1, 2, 3, 4, 5)
+     *           .splitBy(i -&gt; i % 2 == 0);
+     * // parts.first() = [2, 4], parts.second() = [1, 3, 5]
+     * </code></pre>
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param predicate The predicate to test against.
+     * @return A pair of the stream of the elements which passed
+     * the test and the stream of the elements which failed it.
+     * @throws NullPointerException If the predicate is {@code null}.
+     */
+    public Pair<Stream<T>, Stream<T>> splitBy(final Predicate<? super T> predicate) {
+        Objects.requireNonNull(predicate);
+        final List<Stream<Pair<T, Boolean>>> branches = map(elem -> new Pair<T, Boolean>(elem, predicate.test(elem))).tee(2);
+        return new Pair<>(
+            branches.get(0).select(Pair::second).map(Pair::first),
+            branches.get(1).reject(Pair::second).map(Pair::first)
+        );
+    }
+
+    /**
+     * Enumerates this stream's elements into a new stream of pairs.
+     *
+     * <p>Indices for the new stream start from 0.</p>
+     *
+     * <p>The result will be a stream with specialized
+     * methods for working with pairs of values.</p>
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @return An enumerated stream.
+     */
+    public BiStream<Long, T> enumerate() {
+        return Profiler.track(this, new StreamEnumerate<>(this, 0, 1), "enumerate");
+    }
+
+    /**
+     * Enumerates this stream's elements into a new stream
+     * of pairs, starting from the specified index.
+     *
+     * <p>The result will be a stream with specialized
+     * methods for working with pairs of values.</p>
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param start The index of the first element.
+     * @return An enumerated stream.
+     */
+    public BiStream<Long, T> enumerateFrom(final long start) {
+        return Profiler.track(this, new StreamEnumerate<>(this, start, 1), "enumerateFrom");
+    }
+
+    /**
+     * Enumerates this stream's elements into a new stream
+     * of pairs, increasing the index by the specified step.
+     *
+     * <p>Indices for the new stream start from 0.</p>
+     *
+     * <p>The result will be a stream with specialized
+     * methods for working with pairs of values.</p>
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param step The difference between consecutive indices.
+     * @return An enumerated stream.
+     */
+    public BiStream<Long, T> enumerateByStep(final long step) {
+        return Profiler.track(this, new StreamEnumerate<>(this, 0, step), "enumerateByStep");
+    }
+
+    /**
+     * Enumerates this stream's elements into a new stream
+     * of pairs, starting from the specified index and
+     * increasing it by the specified step.
+     *
+     * <p>The result will be a stream with specialized
+     * methods for working with pairs of values.</p>
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param start The index of the first element.
+     * @param step The difference between consecutive indices.
+     * @return An enumerated stream.
+     */
+    public BiStream<Long, T> enumerateFromByStep(final long start, final long step) {
+        return Profiler.track(this, new StreamEnumerate<>(this, start, step), "enumerateFromByStep");
+    }
+
+    /**
+     * Pairs each element of this stream with the element
+     * at the same position in another stream.
+     *
+     * <p>The resulting stream ends when either stream ends.
+     * Mapping the pairs with {@link BiStream#map(BiFunction) map}
+     * or consuming them with {@link BiStream#forEach(BiConsumer) forEach},
+     * {@link BiStream#allMatch(BiPredicate) allMatch} or
+     * {@link BiStream#anyMatch(BiPredicate) anyMatch} directly on the
+     * result passes the elements on without creating pairs.</p>
+     *
+     * <pre><code>
+     * Stream.ofArray(names)
+     *       .zip(Stream.ofArray(scores))
+     *       .forEach((name, score) -&gt; System.out.println(name + ": " + score));
+     * </code></pre>
+     *
+     * <p>The result will be a stream with specialized
+     * methods for working with pairs of values.</p>
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param other The stream to pair the elements with.
+     * @param <U> The type of the elements of the other stream.
+     * @return A stream of the pairs of elements.
+     * @throws NullPointerException If the other stream is {@code null}.
+     * @see #mergeWith(Stream, BiFunction) mergeWith
+     */
+    public <U> BiStream<T, U> zip(final Stream<U> other) {
+        return Profiler.track(this, new StreamZip<>(this, Objects.requireNonNull(other)), "zip");
+    }
+
+    /**
+     * Merges each element of this stream with the element
+     * at the same position in another stream.
+     *
+     * <p>The resulting stream ends when either stream ends.</p>
+     *
+     * <pre><code>
+     * Stream.ofArray(prices)
+     *       .mergeWith(Stream.ofArray(quantities), (price, quantity) -&gt; price * quantity)
+     * </code></pre>
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param other The stream to merge the elements with.
+     * @param merger The function which merges two elements.
+     * @param <U> The type of the elements of the other stream.
+     * @param <R> The type of the merged elements.
+     * @return A stream of the merged elements.
+     * @throws NullPointerException If the other stream or
+     * the merger is {@code null}.
+     * @see #zip(Stream) zip
+     */
+    public <U, R> Stream<R> mergeWith(final Stream<U> other, final BiFunction<? super T, ? super U, ? extends R> merger) {
+        Objects.requireNonNull(other);
+        Objects.requireNonNull(merger);
+        return Profiler.track(this, new StreamMergeWith<>(this, other, merger), "mergeWith");
+    }
+
+    /**
+     * Applies an action to each element without altering it.
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param action The action to apply.
+     * @return An unaltered stream.
+     * @throws NullPointerException If the action is {@code null}.
+     */
+    public Stream<T> inspect(final Consumer<? super T> action) {
+        return Profiler.track(this, new StreamInspect<>(this, Objects.requireNonNull(action)), "inspect");
+    }
+
+    /**
+     * Computes the elements of this stream ahead of time on
+     * a background thread while the downstream operations
+     * process the elements computed so far.
+     *
+     * <p>A new daemon thread is started when the first element
+     * is requested.</p>
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param capacity The maximum number of elements
+     *                 computed ahead of time.
+     * @return A stream with the same elements computed
+     * on a background thread.
+     * @throws IllegalArgumentException If {@code capacity} is less than 1.
+     *
+     * @see #prefetch(int, Executor)
+     */
+    public Stream<T> prefetch(final int capacity) {
+        return Profiler.track(this, new StreamPrefetch<>(this, requirePositiveSize(capacity), null), "prefetch");
+    }
+
+    /**
+     * Computes the elements of this stream ahead of time on
+     * a background thread while the downstream operations
+     * process the elements computed so far.
+     *
+     * <p>When the first element is requested, a task which computes
+     * the elements of this stream is submitted to the executor. The
+     * task waits while {@code capacity} elements are waiting to be
+     * processed. It ends when this stream ends, when this stream
+     * throws an exception or when the returned stream is
+     * {@linkplain #close() closed}, such as when a terminal
+     * operation finishes early. An exception thrown by this
+     * stream is rethrown when the element it was thrown
+     * instead of is requested.</p>
+     *
+     * <pre><code>
+     * Stream.ofCollection(files)
+     *       .map(Decoder::decode) // runs on the executor
+     *       .prefetch(16, executor)
+     *       .forEach(Writer::write);
+     * </code></pre>
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param capacity The maximum number of elements
+     *                 computed ahead of time.
+     * @param executor The executor to run the task on.
+     * @return A stream with the same elements computed
+     * on a background thread.
+     * @throws IllegalArgumentException If {@code capacity} is less than 1.
+     * @throws NullPointerException If the executor is {@code null}.
+     */
+    public Stream<T> prefetch(final int capacity, final Executor executor) {
+        return Profiler.track(this, new StreamPrefetch<>(this, requirePositiveSize(capacity), Objects.requireNonNull(executor)), "prefetch");
+    }
+
+    /**
+     * Groups the elements of this stream into batches which
+     * are emitted when they fill up or when their oldest
+     * element reaches the maximum latency, whichever
+     * happens first.
+     *
+     * <p>The latency is measured with {@link System#nanoTime()}.</p>
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param maxSize The maximum number of elements in a batch.
+     * @param maxLatency The maximum time between pulling the first
+     *                   element of a batch and emitting the batch.
+     * @return A stream of batches of this stream's elements.
+     * @throws IllegalArgumentException If {@code maxSize} is less
+     * than 1 or {@code maxLatency} is negative.
+     * @throws NullPointerException If the latency is {@code null}.
+     *
+     * @see #batchBy(int, Duration, LongSupplier)
+     */
+    public Stream<List<T>> batchBy(final int maxSize, final Duration maxLatency) {
+        return batchBy(maxSize, maxLatency, System::nanoTime);
+    }
+
+    /**
+     * Groups the elements of this stream into batches which
+     * are emitted when they fill up or when their oldest
+     * element reaches the maximum latency, whichever
+     * happens first.
+     *
+     * <pre><code>
+     * Stream.generate(events::poll)
+     *       .batchBy(500, Duration.ofMillis(20))
+     *       .forEach(database::insertAll);
+     * </code></pre>
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * <p>The age of the oldest element is checked before
+     * each element is pulled from this stream, so a batch
+     * can exceed the latency by the time it takes to
+     * compute a single element.</p>
+     *
+     * @param maxSize The maximum number of elements in a batch.
+     * @param maxLatency The maximum time between pulling the first
+     *                   element of a batch and emitting the batch.
+     * @param clock The source of the current time in nanoseconds.
+     * @return A stream of batches of this stream's elements.
+     * @throws IllegalArgumentException If {@code maxSize} is less
+     * than 1 or {@code maxLatency} is negative.
+     * @throws NullPointerException If the latency or the clock
+     * is {@code null}.
+     */
+    public Stream<List<T>> batchBy(final int maxSize, final Duration maxLatency, final LongSupplier clock) {
+        return Profiler.track(this, new StreamBatchBy<>(this, requirePositiveSize(maxSize), toNanos(maxLatency), Objects.requireNonNull(clock)), "batchBy");
+    }
+
+    /**
+     * Limits the rate of this stream by keeping the first
+     * element and dropping the rest of the elements which
+     * arrive within the given interval after it.
+     *
+     * <p>The interval is measured with {@link System#nanoTime()}.</p>
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param interval The minimum time between two kept elements.
+     * @return A stream with the elements which arrived
+     * after the interval had elapsed.
+     * @throws IllegalArgumentException If the interval is negative.
+     * @throws NullPointerException If the interval is {@code null}.
+     *
+     * @see #throttle(Duration, LongSupplier)
+     */
+    public Stream<T> throttle(final Duration interval) {
+        return throttle(interval, System::nanoTime);
+    }
+
+    /**
+     * Limits the rate of this stream by keeping the first
+     * element and dropping the rest of the elements which
+     * arrive within the given interval after it.
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param interval The minimum time between two kept elements.
+     * @param clock The source of the current time in nanoseconds.
+     * @return A stream with the elements which arrived
+     * after the interval had elapsed.
+     * @throws IllegalArgumentException If the interval is negative.
+     * @throws NullPointerException If the interval or the clock
+     * is {@code null}.
+     */
+    public Stream<T> throttle(final Duration interval, final LongSupplier clock) {
+        return Profiler.track(this, new StreamThrottle<>(this, toNanos(interval), Objects.requireNonNull(clock)), "throttle");
+    }
+
+    /**
+     * Limits the rate of this stream by keeping only the
+     * latest element which arrived in each interval.
+     *
+     * <p>The interval is measured with {@link System#nanoTime()}.</p>
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param interval The length of each interval.
+     * @return A stream with the latest element of each interval.
+     * @throws IllegalArgumentException If the interval is negative.
+     * @throws NullPointerException If the interval is {@code null}.
+     *
+     * @see #sample(Duration, LongSupplier)
+     */
+    public Stream<T> sample(final Duration interval) {
+        return sample(interval, System::nanoTime);
+    }
+
+    /**
+     * Limits the rate of this stream by keeping only the
+     * latest element which arrived in each interval.
+     *
+     * <p>An interval starts with the first element which
+     * arrives after the previous one has ended. The latest
+     * element of the last interval is kept even if the
+     * interval hasn't ended when this stream ends.</p>
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param interval The length of each interval.
+     * @param clock The source of the current time in nanoseconds.
+     * @return A stream with the latest element of each interval.
+     * @throws IllegalArgumentException If the interval is negative.
+     * @throws NullPointerException If the interval or the clock
+     * is {@code null}.
+     */
+    public Stream<T> sample(final Duration interval, final LongSupplier clock) {
+        return Profiler.track(this, new StreamSample<>(this, toNanos(interval), Objects.requireNonNull(clock)), "sample");
+    }
+
+    /**
+     * Keeps a uniformly random sample of
+     * elements of this stream.
+     *
+     * <p>If this stream has fewer elements than the sample
+     * size, all of its elements are kept. Only the sample is
+     * kept in memory, so the stream can be larger than the
+     * memory, and most elements are skipped without being
+     * computed if this stream allows it. All elements are
+     * pulled when the first element is requested. The
+     * sampled elements are in no particular order.</p>
+     *
+     * <pre><code>
+     * Stream.lines(accessLog)
+     *       .take(1_000_000)
+     *       .sample(100, new Random())
+     *       .forEach(System.out::println);
+     * </code></pre>
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param size The maximum number of sampled elements.
+     * @param random The source of randomness.
+     * @return A stream of the sampled elements.
+     * @throws IllegalArgumentException If the size is less than 1.
+     * @throws NullPointerException If the source of randomness is {@code null}.
+     */
+    public Stream<T> sample(final int size, final Random random) {
+        return Profiler.track(this, new StreamReservoirSample<>(this, requirePositiveSize(size), Objects.requireNonNull(random)), "sample");
+    }
+
+    /**
+     * Returns the elements of this stream in random order.
+     *
+     * <p>All elements are pulled when the first element is
+     * requested. Arrays and random access lists are read in
+     * random order without being copied.</p>
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @return A stream of the shuffled elements.
+     * @see #shuffle(Random)
+     */
+    public Stream<T> shuffle() {
+        return shuffle(new Random());
+    }
+
+    /**
+     * Returns the elements of this stream in random order.
+     *
+     * <p>All elements are pulled when the first element is
+     * requested. Arrays and random access lists are read in
+     * random order without being copied.</p>
+     *
+     * <pre><code>
+     * Stream.ofCollection(players)
+     *       .shuffle(new Random(seed))
+     *       .take(teamSize)
+     * </code></pre>
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param random The source of randomness.
+     * @return A stream of the shuffled elements.
+     * @throws NullPointerException If the source of randomness is {@code null}.
+     */
+    public Stream<T> shuffle(final Random random) {
+        return Profiler.track(this, new StreamShuffle<>(this, Objects.requireNonNull(random)), "shuffle");
+    }
+
+    /**
+     * Fuses the stages of this stream into a single stage.
+     *
+     * <p>The maps, selects, rejects, unique, drops, takes and
+     * inspects at the end of this stream are replaced by a single
+     * stage which runs all of them in one loop, instead of each
+     * stage pulling elements from the one before it. Fusion stops
+     * at the first stage which can't be fused; that stage and the
+     * stages before it are kept as they are. Adjacent maps are
+     * composed and adjacent filters are combined. A map which
+     * returns {@code null} still ends the stream, so the fused
+     * stage produces the same elements as the stages it replaces.
+     * Elements skipped through {@link #mapPure(Function) mapPure}
+     * stages are still passed over without being mapped.</p>
+     *
+     * <p>The fused stage removes the calls between the stages, but
+     * not the calls to the mappers and predicates. These go through
+     * one loop which is shared by all compiled streams, so the JIT
+     * can't inline them once several pipelines are hot, just like
+     * the {@code next()} calls of separate stages. No code is
+     * generated per pipeline.</p>
+     *
+     * <p>This is useful for long-lived streams which are
+     * {@linkplain #copy() copied} many times, such as the
+     * upstream of {@link #cycle()} or a {@link Pipeline}.</p>
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @return A stream with the same elements as this stream.
+     */
+    public Stream<T> compile() {
+        return Pipeline.compile(this);
+    }
+
+    /**
+     * Records runtime metrics for this stream and every
+     * stage created from it.
+     *
+     * <p>Each stage records the number of elements it pulls
+     * and produces and the time spent in it, excluding the
+     * time spent in the stages before it. When a terminal
+     * operation finishes, the metrics are passed to the listener.
+     * Only the stages created after this method is called are
+     * measured separately; the stages before it are measured
+     * as a single source stage. Streams which aren't profiled
+     * aren't affected.</p>
+     *
+     * <pre><code>
+     * Stream.of(words)
+     *       .profiled(profile -&gt; System.out.print(profile))
+     *       .select(word -&gt; word.length() &gt; 3)
+     *       .map(String::toUpperCase)
+     *       .forEach(System.out::println);
+     * </code></pre>
+     *
+     * <p>This is an intermediate operation.</p>
+     *
+     * @param listener The listener to pass the metrics to.
+     * @return A profiled stream.
+     * @throws NullPointerException If the listener is {@code null}.
+     * @see PipelineProfile
+     */
+    public Stream<T> profiled(final ProfileListener listener) {
+        return new StreamProfiled<>(this, Profiler.root(getClass().getSimpleName(), Objects.requireNonNull(listener)));
+    }
+
+
+
+    // Terminal Operations
+
+    /**
+     * Checks if all elements in this stream pass
+     * the predicate.
+     *
+     * <p>This is a terminal operation.</p>
+     *
+     * @param predicate The predicate to check against.
+     * @return Whether all elements pass the predicate.
+     * @throws NullPointerException If the predicate is {@code null}.
+     */
+    public boolean allMatch(final Predicate<? super T> predicate) {
+        Objects.requireNonNull(predicate);
+        return terminal("allMatch", elems -> {
+            for (Optional<T> curr = elems.next(); curr.isPresent(); curr = elems.next()) {
+                if (!predicate.test(curr.get())) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Checks if any of the elements in this stream
+     * passes the predicate.
+     *
+     * <p>This is a terminal operation.</p>
+     *
+     * @param predicate The predicate to check against.
+     * @return Whether any element passes the predicate.
+     * @throws NullPointerException If the predicate is {@code null}.
+     */
+    public boolean anyMatch(final Predicate<? super T> predicate) {
+        Objects.requireNonNull(predicate);
+        return terminal("anyMatch", elems -> {
+            for (Optional<T> curr = elems.next(); curr.isPresent(); curr = elems.next()) {
+                if (predicate.test(curr.get())) {
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Checks if none of the elements in this stream
+     * passes the predicate.
+     *
+     * <p>This is a terminal operation.</p>
+     *
+     * @param predicate The predicate to check against.
+     * @return Whether no element passes the predicate.
+     * @throws NullPointerException If the predicate is {@code null}.
+     */
+    public boolean noneMatch(final Predicate<? super T> predicate) {
+        return allMatch(Objects.requireNonNull(predicate).negate());
+    }
+
+    /**
+     * Checks if this stream contains no elements.
+     *
+     * <p>This is a terminal operation.</p>
+     *
+     * @return Whether this stream is empty.
+     */
     public boolean isEmpty() {
-        return !next().isPresent();
+        return terminal("isEmpty", elems -> !elems.next().isPresent());
+    }
+
+    /**
+     * Joins the elements of this stream into a string.
+     *
+     * <p>This is a terminal operation.</p>
+     *
+     * @return The joined elements.
+     *
+     * @see #joining(CharSequence)
+     */
+    public String joining() {
+        return joining("");
+    }
+
+    /**
+     * Joins the elements of this stream into a string
+     * separating them with the delimiter.
+     *
+     * <p>This is a terminal operation.</p>
+     *
+     * @param delimiter The delimiter between the elements.
+     * @return The joined elements.
+     * @throws NullPointerException If the delimiter is {@code null}.
+     *
+     * @see #joinTo(Appendable, CharSequence)
+     */
+    public String joining(final CharSequence delimiter) {
+        return joinTo(new StringBuilder(), delimiter).toString();
+    }
+
+    /**
+     * Appends the elements of this stream to the appendable
+     * separating them with the delimiter.
+     *
+     * <p>Elements which are {@link CharSequence}s are appended
+     * directly without being converted to strings. Other elements
+     * are converted with {@link String#valueOf(Object)}.</p>
+     *
+     * <pre><code>
+     * final StringBuilder builder = new StringBuilder(expectedLength);
+     * Stream.words(text)
+     *       .select(word -&gt; word.length() &gt; 3)
+     *       .joinTo(builder, " ");
+     * </code></pre>
+     *
+     * <p>This is a terminal operation.</p>
+     *
+     * <p>If the appendable throws an {@link java.io.IOException},
+     * it is rethrown as an {@link java.io.UncheckedIOException}.</p>
+     *
+     * @param appendable The appendable to append to.
+     * @param delimiter The delimiter between the elements.
+     * @param <A> The type of the appendable.
+     * @return The appendable.
+     * @throws NullPointerException If the appendable or
+     * the delimiter is {@code null}.
+     */
+    public <A extends Appendable> A joinTo(final A appendable, final CharSequence delimiter) {
+        Objects.requireNonNull(appendable);
+        Objects.requireNonNull(delimiter);
+        return terminal("joinTo", elems -> {
+            try {
+                boolean isFirst = true;
+                for (Optional<T> curr = elems.next(); curr.isPresent(); curr = elems.next()) {
+                    if (!isFirst) {
+                        appendable.append(delimiter);
+                    }
+                    final T elem = curr.get();
+                    appendable.append(elem instanceof CharSequence ? (CharSequence) elem : String.valueOf(elem));
+                    isFirst = false;
+                }
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return appendable;
+        });
+    }
+
+    /**
+     * Returns the element at the given index in this stream.
+     *
+     * <p>The elements before the index are skipped
+     * without being computed if this stream allows it.</p>
+     *
+     * <p>This is a terminal operation.</p>
+     *
+     * @param index The index of the element.
+     * @return An {@link Optional} holding the element or an empty
+     * {@link Optional} if this stream has no more elements.
+     * @throws IllegalArgumentException If the index is negative.
+     */
+    public Optional<T> nth(final long index) {
+        if (index < 0) {
+            throw new IllegalArgumentException("Index must not be negative: " + index);
+        }
+        return terminal("nth", elems -> elems.skip(index) == index ? elems.next() : Optional.empty());
+    }
+
+    /**
+     * Performs an action on each element of this stream.
+     *
+     * <p>This is a terminal operation.</p>
+     *
+     * @param action The action to perform.
+     * @throws NullPointerException If the action is {@code null}.
+     */
+    public void forEach(final Consumer<? super T> action) {
+        Objects.requireNonNull(action);
+        terminal("forEach", elems -> {
+            for (Optional<T> curr = elems.next(); curr.isPresent(); curr = elems.next()) {
+                action.accept(curr.get());
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Applies an action to each element of this
+     * stream together with its index.
+     *
+     * <p>Indices start from 0.</p>
+     *
+     * <p>This is a terminal operation.</p>
+     *
+     * @param action The action which accepts
+     *               the index and the element.
+     * @throws NullPointerException If the action is {@code null}.
+     */
+    public void forEachIndexed(final LongObjConsumer<? super T> action) {
+        Objects.requireNonNull(action);
+        terminal("forEachIndexed", elems -> {
+            long index = 0;
+            for (Optional<T> curr = elems.next(); curr.isPresent(); curr = elems.next()) {
+                action.accept(index++, curr.get());
+            }
+            return null;
+        });
     }
 
     /**
-     * Performs an action on each element of this stream.
+     * Returns an array of the results of combining each
+     * element with the elements before it.
+     *
+     * <p>The operator must be associative. The elements are
+     * collected into an array, presized if the number of
+     * elements is known, and the results are computed in
+     * place in parallel for large arrays. Use
+     * {@link #scanLeft(BinaryOperator) scanLeft} if the
+     * operator isn't associative.</p>
+     *
+     * <pre><code>
+     * final Double[] distribution = Stream.ofArray(probabilities)
+     *                                     .scanLeftToArray(Double::sum, Double[]::new);
+     * </code></pre>
      *
      * <p>This is a terminal operation.</p>
      *
-     * @param action The action to perform.
-     * @throws NullPointerException If the action is {@code null}.
+     * @param operator The associative operator which combines
+     *                 the previous result with the current element.
+     * @param generator The function which creates an array
+     *                  of the given length.
+     * @return An array of the running results.
+     * @throws NullPointerException If the operator or
+     * the generator is {@code null}.
+     * @see Arrays#parallelPrefix(Object[], BinaryOperator)
      */
-    public void forEach(final Consumer<? super T> action) {
-        Objects.requireNonNull(action);
-        for (Optional<T> curr = next(); curr.isPresent(); curr = next()) {
-            action.accept(curr.get());
+    public T[] scanLeftToArray(final BinaryOperator<T> operator, final IntFunction<T[]> generator) {
+        Objects.requireNonNull(operator);
+        Objects.requireNonNull(generator);
+        final T[] res = terminal("scanLeftToArray", elems -> {
+            T[] buffer = generator.apply(bufferCapacity(exactSize()));
+            int len = 0;
+            for (Optional<T> curr = elems.next(); curr.isPresent(); curr = elems.next()) {
+                if (len == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, grownCapacity(len));
+                }
+                buffer[len++] = curr.get();
+            }
+            return len == buffer.length ? buffer : Arrays.copyOf(buffer, len);
+        });
+        Arrays.parallelPrefix(res, operator);
+        return res;
+    }
+
+    /**
+     * Returns an array of the sums of the values of
+     * each element and all elements before it.
+     *
+     * <p>The values are collected into an array, presized if
+     * the number of elements is known, and the sums are computed
+     * in place in parallel for large arrays.</p>
+     *
+     * <pre><code>
+     * final long[] cumulative = Stream.ofArray(buckets).runningSumToArray(Bucket::count);
+     * </code></pre>
+     *
+     * <p>This is a terminal operation.</p>
+     *
+     * @param mapper The function which computes the value of an element.
+     * @return An array of the running sums.
+     * @throws NullPointerException If the mapper is {@code null}.
+     * @see #runningSum(ToLongFunction)
+     * @see Arrays#parallelPrefix(long[], LongBinaryOperator)
+     */
+    public long[] runningSumToArray(final ToLongFunction<? super T> mapper) {
+        Objects.requireNonNull(mapper);
+        final long[] res = terminal("runningSumToArray", elems -> {
+            long[] buffer = new long[bufferCapacity(exactSize())];
+            int len = 0;
+            for (Optional<T> curr = elems.next(); curr.isPresent(); curr = elems.next()) {
+                if (len == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, grownCapacity(len));
+                }
+                buffer[len++] = mapper.applyAsLong(curr.get());
+            }
+            return len == buffer.length ? buffer : Arrays.copyOf(buffer, len);
+        });
+        Arrays.parallelPrefix(res, Long::sum);
+        return res;
+    }
+
+    /**
+     * Returns the largest element of this stream
+     * according to the comparator.
+     *
+     * <p>If several elements are the largest,
+     * the first one is returned.</p>
+     *
+     * <p>This is a terminal operation.</p>
+     *
+     * @param comparator The comparator to compare the elements with.
+     * @return An {@link Optional} holding the largest element or
+     * an empty {@link Optional} if this stream has no elements.
+     * @throws NullPointerException If the comparator is {@code null}.
+     */
+    public Optional<T> max(final Comparator<? super T> comparator) {
+        return largest(Objects.requireNonNull(comparator), "max");
+    }
+
+    /**
+     * Returns the smallest element of this stream
+     * according to the comparator.
+     *
+     * <p>If several elements are the smallest,
+     * the first one is returned.</p>
+     *
+     * <p>This is a terminal operation.</p>
+     *
+     * @param comparator The comparator to compare the elements with.
+     * @return An {@link Optional} holding the smallest element or
+     * an empty {@link Optional} if this stream has no elements.
+     * @throws NullPointerException If the comparator is {@code null}.
+     */
+    public Optional<T> min(final Comparator<? super T> comparator) {
+        return largest(Objects.requireNonNull(comparator).reversed(), "min");
+    }
+
+    /**
+     * Returns the element of this stream with the largest key.
+     *
+     * <p>The key of each element is computed once. If several
+     * elements have the largest key, the first one is returned.</p>
+     *
+     * <pre><code>
+     * Stream.ofCollection(employees).maxBy(Employee::hireDate)
+     * </code></pre>
+     *
+     * <p>This is a terminal operation.</p>
+     *
+     * @param keyExtractor The function which computes the key of an element.
+     * @param <U> The type of the keys.
+     * @return An {@link Optional} holding the element with the largest
+     * key or an empty {@link Optional} if this stream has no elements.
+     * @throws NullPointerException If the key extractor is {@code null}.
+     * @see #maxByLong(ToLongFunction)
+     * @see #maxByDouble(ToDoubleFunction)
+     */
+    public <U extends Comparable<? super U>> Optional<T> maxBy(final Function<? super T, ? extends U> keyExtractor) {
+        return largestByKey(Objects.requireNonNull(keyExtractor), 1, "maxBy");
+    }
+
+    /**
+     * Returns the element of this stream with the smallest key.
+     *
+     * <p>The key of each element is computed once. If several
+     * elements have the smallest key, the first one is returned.</p>
+     *
+     * <p>This is a terminal operation.</p>
+     *
+     * @param keyExtractor The function which computes the key of an element.
+     * @param <U> The type of the keys.
+     * @return An {@link Optional} holding the element with the smallest
+     * key or an empty {@link Optional} if this stream has no elements.
+     * @throws NullPointerException If the key extractor is {@code null}.
+     * @see #minByLong(ToLongFunction)
+     * @see #minByDouble(ToDoubleFunction)
+     */
+    public <U extends Comparable<? super U>> Optional<T> minBy(final Function<? super T, ? extends U> keyExtractor) {
+        return largestByKey(Objects.requireNonNull(keyExtractor), -1, "minBy");
+    }
+
+    /**
+     * Returns the element of this stream with the largest
+     * {@code long} key.
+     *
+     * <p>The keys are compared without being boxed. If several
+     * elements have the largest key, the first one is returned.</p>
+     *
+     * <p>This is a terminal operation.</p>
+     *
+     * @param keyExtractor The function which computes the key of an element.
+     * @return An {@link Optional} holding the element with the largest
+     * key or an empty {@link Optional} if this stream has no elements.
+     * @throws NullPointerException If the key extractor is {@code null}.
+     */
+    public Optional<T> maxByLong(final ToLongFunction<? super T> keyExtractor) {
+        return largestByLong(Objects.requireNonNull(keyExtractor), 1, "maxByLong");
+    }
+
+    /**
+     * Returns the element of this stream with the smallest
+     * {@code long} key.
+     *
+     * <p>The keys are compared without being boxed. If several
+     * elements have the smallest key, the first one is returned.</p>
+     *
+     * <p>This is a terminal operation.</p>
+     *
+     * @param keyExtractor The function which computes the key of an element.
+     * @return An {@link Optional} holding the element with the smallest
+     * key or an empty {@link Optional} if this stream has no elements.
+     * @throws NullPointerException If the key extractor is {@code null}.
+     */
+    public Optional<T> minByLong(final ToLongFunction<? super T> keyExtractor) {
+        return largestByLong(Objects.requireNonNull(keyExtractor), -1, "minByLong");
+    }
+
+    /**
+     * Returns the element of this stream with the largest
+     * {@code double} key.
+     *
+     * <p>The keys are compared without being boxed, in the order of
+     * {@link Double#compare(double, double)}. If several elements
+     * have the largest key, the first one is returned.</p>
+     *
+     * <p>This is a terminal operation.</p>
+     *
+     * @param keyExtractor The function which computes the key of an element.
+     * @return An {@link Optional} holding the element with the largest
+     * key or an empty {@link Optional} if this stream has no elements.
+     * @throws NullPointerException If the key extractor is {@code null}.
+     */
+    public Optional<T> maxByDouble(final ToDoubleFunction<? super T> keyExtractor) {
+        return largestByDouble(Objects.requireNonNull(keyExtractor), 1, "maxByDouble");
+    }
+
+    /**
+     * Returns the element of this stream with the smallest
+     * {@code double} key.
+     *
+     * <p>The keys are compared without being boxed, in the order of
+     * {@link Double#compare(double, double)}. If several elements
+     * have the smallest key, the first one is returned.</p>
+     *
+     * <p>This is a terminal operation.</p>
+     *
+     * @param keyExtractor The function which computes the key of an element.
+     * @return An {@link Optional} holding the element with the smallest
+     * key or an empty {@link Optional} if this stream has no elements.
+     * @throws NullPointerException If the key extractor is {@code null}.
+     */
+    public Optional<T> minByDouble(final ToDoubleFunction<? super T> keyExtractor) {
+        return largestByDouble(Objects.requireNonNull(keyExtractor), -1, "minByDouble");
+    }
+
+    /**
+     * Returns the smallest and the largest element
+     * of this stream according to the comparator.
+     *
+     * <p>The elements are compared in pairs, so about three
+     * comparisons are made for every two elements. If several
+     * elements are the smallest or the largest, the first one
+     * is returned.</p>
+     *
+     * <pre><code>
+     * Stream.ofCollection(readings)
+     *       .minMax(Comparator.comparingDouble(Reading::value))
+     *       .ifPresent(range -&gt; System.out.println(range.first() + " - " + range.second()));
+     * </code></pre>
+     *
+     * <p>This is a terminal operation.</p>
+     *
+     * @param comparator The comparator to compare the elements with.
+     * @return An {@link Optional} holding a pair of the smallest and
+     * the largest element or an empty {@link Optional} if this
+     * stream has no elements.
+     * @throws NullPointerException If the comparator is {@code null}.
+     */
+    public Optional<Pair<T, T>> minMax(final Comparator<? super T> comparator) {
+        Objects.requireNonNull(comparator);
+        return terminal("minMax", elems -> {
+            final Optional<T> first = elems.next();
+            if (!first.isPresent()) {
+                return Optional.empty();
+            }
+            T min = first.get();
+            T max = min;
+            for (Optional<T> curr = elems.next(); curr.isPresent(); curr = elems.next()) {
+                final Optional<T> other = elems.next();
+                if (!other.isPresent()) {
+                    // An odd element out
+                    if (comparator.compare(curr.get(), min) < 0) {
+                        min = curr.get();
+                    } else if (comparator.compare(curr.get(), max) > 0) {
+                        max = curr.get();
+                    }
+                    break;
+                }
+                // Only the smaller of the pair can be the minimum and the larger the maximum
+                final int order = comparator.compare(curr.get(), other.get());
+                final T smaller = order <= 0 ? curr.get() : other.get();
+                final T larger = order >= 0 ? curr.get() : other.get();
+                if (comparator.compare(smaller, min) < 0) {
+                    min = smaller;
+                }
+                if (comparator.compare(larger, max) > 0) {
+                    max = larger;
+                }
+            }
+            return Optional.of(new Pair<>(min, max));
+        });
+    }
+
+    /**
+     * Returns the largest elements of this stream
+     * according to the comparator.
+     *
+     * <p>Only the largest elements seen so far are kept, in a binary
+     * heap, so each element is usually compared only once. The
+     * elements are returned from the largest to the smallest.</p>
+     *
+     * <pre><code>
+     * Stream.ofCollection(requests)
+     *       .topK(10, Comparator.comparingLong(Request::latency))
+     * </code></pre>
+     *
+     * <p>This is a terminal operation.</p>
+     *
+     * @param k The maximum number of elements to return.
+     * @param comparator The comparator to compare the elements with.
+     * @return A list of at most {@code k} largest elements.
+     * @throws IllegalArgumentException If {@code k} is less than 1.
+     * @throws NullPointerException If the comparator is {@code null}.
+     * @see #bottomK(int, Comparator)
+     */
+    public List<T> topK(final int k, final Comparator<? super T> comparator) {
+        return largestK(requirePositiveSize(k), Objects.requireNonNull(comparator), "topK");
+    }
+
+    /**
+     * Returns the smallest elements of this stream
+     * according to the comparator.
+     *
+     * <p>Only the smallest elements seen so far are kept, in a binary
+     * heap, so each element is usually compared only once. The
+     * elements are returned from the smallest to the largest.</p>
+     *
+     * <p>This is a terminal operation.</p>
+     *
+     * @param k The maximum number of elements to return.
+     * @param comparator The comparator to compare the elements with.
+     * @return A list of at most {@code k} smallest elements.
+     * @throws IllegalArgumentException If {@code k} is less than 1.
+     * @throws NullPointerException If the comparator is {@code null}.
+     * @see #topK(int, Comparator)
+     */
+    public List<T> bottomK(final int k, final Comparator<? super T> comparator) {
+        return largestK(requirePositiveSize(k), Objects.requireNonNull(comparator).reversed(), "bottomK");
+    }
+
+    /**
+     * Returns the elements of this stream with the largest keys.
+     *
+     * <p>Like {@link #topK(int, Comparator) topK}, but the key of
+     * each element is computed once and kept next to the element
+     * instead of being computed again for each comparison. The
+     * elements are returned from the largest key to the smallest.</p>
+     *
+     * <pre><code>
+     * Stream.ofCollection(files)
+     *       .topKBy(10, File::getName)
+     * </code></pre>
+     *
+     * <p>This is a terminal operation.</p>
+     *
+     * @param k The maximum number of elements to return.
+     * @param keyExtractor The function which computes the key of an element.
+     * @param <U> The type of the keys.
+     * @return A list of at most {@code k} elements with the largest keys.
+     * @throws IllegalArgumentException If {@code k} is less than 1.
+     * @throws NullPointerException If the key extractor is {@code null}.
+     * @see #topKByLong(int, ToLongFunction)
+     */
+    public <U extends Comparable<? super U>> List<T> topKBy(final int k, final Function<? super T, ? extends U> keyExtractor) {
+        return largestKBy(requirePositiveSize(k), Objects.requireNonNull(keyExtractor), 1, "topKBy");
+    }
+
+    /**
+     * Returns the elements of this stream with the smallest keys.
+     *
+     * <p>The key of each element is computed once. The elements
+     * are returned from the smallest key to the largest.</p>
+     *
+     * <p>This is a terminal operation.</p>
+     *
+     * @param k The maximum number of elements to return.
+     * @param keyExtractor The function which computes the key of an element.
+     * @param <U> The type of the keys.
+     * @return A list of at most {@code k} elements with the smallest keys.
+     * @throws IllegalArgumentException If {@code k} is less than 1.
+     * @throws NullPointerException If the key extractor is {@code null}.
+     * @see #bottomKByLong(int, ToLongFunction)
+     */
+    public <U extends Comparable<? super U>> List<T> bottomKBy(final int k, final Function<? super T, ? extends U> keyExtractor) {
+        return largestKBy(requirePositiveSize(k), Objects.requireNonNull(keyExtractor), -1, "bottomKBy");
+    }
+
+    /**
+     * Returns the elements of this stream with
+     * the largest {@code long} keys.
+     *
+     * <p>The key of each element is computed once and the keys are
+     * compared without being boxed. The elements are returned from
+     * the largest key to the smallest.</p>
+     *
+     * <pre><code>
+     * Stream.ofCollection(requests)
+     *       .topKByLong(10, Request::latency)
+     * </code></pre>
+     *
+     * <p>This is a terminal operation.</p>
+     *
+     * @param k The maximum number of elements to return.
+     * @param keyExtractor The function which computes the key of an element.
+     * @return A list of at most {@code k} elements with the largest keys.
+     * @throws IllegalArgumentException If {@code k} is less than 1.
+     * @throws NullPointerException If the key extractor is {@code null}.
+     */
+    public List<T> topKByLong(final int k, final ToLongFunction<? super T> keyExtractor) {
+        return largestKByLong(requirePositiveSize(k), Objects.requireNonNull(keyExtractor), 1, "topKByLong");
+    }
+
+    /**
+     * Returns the elements of this stream with
+     * the smallest {@code long} keys.
+     *
+     * <p>The key of each element is computed once and the keys are
+     * compared without being boxed. The elements are returned from
+     * the smallest key to the largest.</p>
+     *
+     * <p>This is a terminal operation.</p>
+     *
+     * @param k The maximum number of elements to return.
+     * @param keyExtractor The function which computes the key of an element.
+     * @return A list of at most {@code k} elements with the smallest keys.
+     * @throws IllegalArgumentException If {@code k} is less than 1.
+     * @throws NullPointerException If the key extractor is {@code null}.
+     */
+    public List<T> bottomKByLong(final int k, final ToLongFunction<? super T> keyExtractor) {
+        return largestKByLong(requirePositiveSize(k), Objects.requireNonNull(keyExtractor), -1, "bottomKByLong");
+    }
+
+    /**
+     * Estimates the number of distinct elements in this stream.
+     *
+     * <p>Unlike {@link #unique()}, the elements aren't kept. The
+     * estimate is computed with a {@link HyperLogLog} which uses
+     * {@code 2^precision} registers of 6 bits and has a relative
+     * standard error of about {@code 1.04 / sqrt(2^precision)}.</p>
+     *
+     * <p>The elements are told apart by their 32-bit hash codes, so
+     * elements with equal hash codes are counted once. This starts
+     * to matter at hundreds of millions of distinct elements, for
+     * example the estimate is about 11% too low at a billion.
+     * {@link #approxDistinctCount(int, ToLongFunction)} should be
+     * used with a 64-bit hash function for such streams.</p>
+     *
+     * <pre><code>
+     * final long users = Stream.lines(accessLog)
+     *                          .map(line -&gt; line.substring(0, line.indexOf(' ')))
+     *                          .approxDistinctCount(14);
+     * </code></pre>
+     *
+     * <p>This is a terminal operation.</p>
+     *
+     * @param precision The base 2 logarithm of the number of registers.
+     * @return The estimated number of distinct elements.
+     * @throws IllegalArgumentException If the precision is
+     * less than 4 or greater than 18.
+     * @see HyperLogLog
+     */
+    public long approxDistinctCount(final int precision) {
+        final HyperLogLog sketch = new HyperLogLog(precision);
+        return terminal("approxDistinctCount", elems -> {
+            for (Optional<T> curr = elems.next(); curr.isPresent(); curr = elems.next()) {
+                sketch.add(curr.get());
+            }
+            return sketch.estimate();
+        });
+    }
+
+    /**
+     * Estimates the number of distinct elements in this
+     * stream, telling them apart by the given hash function.
+     *
+     * <p>This works like {@link #approxDistinctCount(int)}, but the
+     * elements are hashed to 64 bits by the hasher instead of by
+     * their hash codes, so collisions don't lower the estimate even
+     * for billions of distinct elements. The bits of the hashes
+     * should be uniformly distributed.</p>
+     *
+     * <pre><code>
+     * final long sessions = Stream.ofRecords(buffer, 16)
+     *                             .approxDistinctCount(16, record -&gt; mix(record.getLong(0)));
+     * </code></pre>
+     *
+     * <p>This is a terminal operation.</p>
+     *
+     * @param precision The base 2 logarithm of the number of registers.
+     * @param hasher The function which computes the 64-bit hash of an element.
+     * @return The estimated number of distinct elements.
+     * @throws IllegalArgumentException If the precision is
+     * less than 4 or greater than 18.
+     * @throws NullPointerException If the hasher is {@code null}.
+     * @see HyperLogLog#addHash(long)
+     */
+    public long approxDistinctCount(final int precision, final ToLongFunction<? super T> hasher) {
+        Objects.requireNonNull(hasher);
+        final HyperLogLog sketch = new HyperLogLog(precision);
+        return terminal("approxDistinctCount", elems -> {
+            for (Optional<T> curr = elems.next(); curr.isPresent(); curr = elems.next()) {
+                sketch.addHash(hasher.applyAsLong(curr.get()));
+            }
+            return sketch.estimate();
+        });
+    }
+
+    /**
+     * Estimates the quantiles of the values of the elements.
+     *
+     * <p>The values aren't kept. The quantiles are computed
+     * with a {@link QuantileSketch} which keeps about 600 values
+     * and whose ranks are usually within 1% of the requested
+     * ones. {@code NaN} values are ignored.</p>
+     *
+     * <pre><code>
+     * final double[] latency = Stream.ofCollection(requests)
+     *                                .approxQuantiles(Request::latency, 0.5, 0.99);
+     * </code></pre>
+     *
+     * <p>This is a terminal operation.</p>
+     *
+     * @param mapper The function which computes the value of an element.
+     * @param ranks The ranks between 0 and 1, for example 0.5 for the median.
+     * @return The estimated quantiles in the order of the ranks. All
+     * of them are {@code NaN} if this stream has no elements.
+     * @throws IllegalArgumentException If a rank is not between 0 and 1.
+     * @throws NullPointerException If the mapper or the ranks are {@code null}.
+     * @see QuantileSketch
+     */
+    public double[] approxQuantiles(final ToDoubleFunction<? super T> mapper, final double... ranks) {
+        Objects.requireNonNull(mapper);
+        for (final double rank : Objects.requireNonNull(ranks)) {
+            if (!(rank >= 0 && rank <= 1)) {
+                throw new IllegalArgumentException("Rank must be between 0 and 1: " + rank);
+            }
+        }
+        final QuantileSketch sketch = new QuantileSketch();
+        return terminal("approxQuantiles", elems -> {
+            for (Optional<T> curr = elems.next(); curr.isPresent(); curr = elems.next()) {
+                sketch.add(mapper.applyAsDouble(curr.get()));
+            }
+            return sketch.quantiles(ranks);
+        });
+    }
+
+    /**
+     * Counts the elements of this stream.
+     *
+     * <p>The elements are skipped without being computed if this
+     * stream allows it. Stages which may end this stream, such as
+     * {@link #map(Function) map}, still compute their elements, so
+     * the count is the number of elements {@link #forEach(Consumer)
+     * forEach} would see.</p>
+     *
+     * <p>This is a terminal operation.</p>
+     *
+     * @return The number of elements.
+     */
+    public long count() {
+        return terminal("count", elems -> elems.skip(Long.MAX_VALUE));
+    }
+
+    /**
+     * Counts how many times each element occurs in this stream.
+     *
+     * <pre><code>
+     * Stream.words(text).map(CharSlice::toString).frequencies()
+     * </code></pre>
+     *
+     * <p>This is a terminal operation.</p>
+     *
+     * @return A map from each element to the number of its occurrences.
+     * @see MoreCollectors#frequencies()
+     */
+    public Map<T, Long> frequencies() {
+        return collect(MoreCollectors.frequencies(), "frequencies");
+    }
+
+    /**
+     * Collects the elements of this stream with the collector.
+     *
+     * <p>Several collectors can be combined with {@link MoreCollectors}
+     * so that they all collect the elements in one pass.</p>
+     *
+     * <pre><code>
+     * final Map&lt;Department, List&lt;Employee&gt;&gt; byDepartment =
+     *     Stream.ofCollection(employees)
+     *           .collect(Collectors.groupingBy(Employee::department));
+     * </code></pre>
+     *
+     * <p>This is a terminal operation.</p>
+     *
+     * @param collector The collector to collect the elements with.
+     * @param <A> The type of the mutable container of the collector.
+     * @param <R> The type of the result.
+     * @return The result of the collector.
+     * @throws NullPointerException If the collector is {@code null}.
+     * @see MoreCollectors#allOf(List)
+     */
+    public <A, R> R collect(final Collector<? super T, A, R> collector) {
+        return collect(Objects.requireNonNull(collector), "collect");
+    }
+
+    /**
+     * Collects the elements of this stream
+     * into a mutable container.
+     *
+     * <pre><code>
+     * final StringBuilder initials = Stream.ofCollection(names)
+     *                                      .collect(StringBuilder::new, (builder, name) -&gt; builder.append(name.charAt(0)));
+     * </code></pre>
+     *
+     * <p>This is a terminal operation.</p>
+     *
+     * @param supplier The function which creates the container.
+     * @param accumulator The function which adds an element to the container.
+     * @param <R> The type of the container.
+     * @return The container with the elements added.
+     * @throws NullPointerException If the supplier or
+     * the accumulator is {@code null}.
+     */
+    public <R> R collect(final Supplier<R> supplier, final BiConsumer<R, ? super T> accumulator) {
+        Objects.requireNonNull(supplier);
+        Objects.requireNonNull(accumulator);
+        final R container = supplier.get();
+        return terminal("collect", elems -> {
+            for (Optional<T> curr = elems.next(); curr.isPresent(); curr = elems.next()) {
+                accumulator.accept(container, curr.get());
+            }
+            return container;
+        });
+    }
+
+
+
+    // Helpers
+
+    private static int requirePositiveSize(final int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Size must be positive: " + size);
+        }
+        return size;
+    }
+
+    private static long toNanos(final Duration duration) {
+        if (Objects.requireNonNull(duration).isNegative()) {
+            throw new IllegalArgumentException("Duration must not be negative: " + duration);
+        }
+        return duration.toNanos();
+    }
+
+    // Keeps the first of the largest elements
+    private Optional<T> largest(final Comparator<? super T> comparator, final String name) {
+        return terminal(name, elems -> {
+            Optional<T> res = elems.next();
+            if (res.isPresent()) {
+                for (Optional<T> curr = elems.next(); curr.isPresent(); curr = elems.next()) {
+                    if (comparator.compare(curr.get(), res.get()) > 0) {
+                        res = curr;
+                    }
+                }
+            }
+            return res;
+        });
+    }
+
+    // The sign is 1 for the largest key and -1 for the smallest
+    private <U extends Comparable<? super U>> Optional<T> largestByKey(final Function<? super T, ? extends U> keyExtractor, final int sign, final String name) {
+        return terminal(name, elems -> {
+            Optional<T> res = elems.next();
+            if (res.isPresent()) {
+                // The key of the result is kept instead of being recomputed
+                U resKey = keyExtractor.apply(res.get());
+                for (Optional<T> curr = elems.next(); curr.isPresent(); curr = elems.next()) {
+                    final U key = keyExtractor.apply(curr.get());
+                    if (sign * Integer.signum(key.compareTo(resKey)) > 0) {
+                        res = curr;
+                        resKey = key;
+                    }
+                }
+            }
+            return res;
+        });
+    }
+
+    private Optional<T> largestByLong(final ToLongFunction<? super T> keyExtractor, final int sign, final String name) {
+        return terminal(name, elems -> {
+            Optional<T> res = elems.next();
+            if (res.isPresent()) {
+                long resKey = keyExtractor.applyAsLong(res.get());
+                for (Optional<T> curr = elems.next(); curr.isPresent(); curr = elems.next()) {
+                    final long key = keyExtractor.applyAsLong(curr.get());
+                    if (sign * Long.compare(key, resKey) > 0) {
+                        res = curr;
+                        resKey = key;
+                    }
+                }
+            }
+            return res;
+        });
+    }
+
+    private Optional<T> largestByDouble(final ToDoubleFunction<? super T> keyExtractor, final int sign, final String name) {
+        return terminal(name, elems -> {
+            Optional<T> res = elems.next();
+            if (res.isPresent()) {
+                double resKey = keyExtractor.applyAsDouble(res.get());
+                for (Optional<T> curr = elems.next(); curr.isPresent(); curr = elems.next()) {
+                    final double key = keyExtractor.applyAsDouble(curr.get());
+                    if (sign * Double.compare(key, resKey) > 0) {
+                        res = curr;
+                        resKey = key;
+                    }
+                }
+            }
+            return res;
+        });
+    }
+
+    private List<T> largestK(final int k, final Comparator<? super T> comparator, final String name) {
+        return terminal(name, elems -> {
+            final TopKHeap<T> heap = new TopKHeap<>(k, comparator, exactSize());
+            for (Optional<T> curr = elems.next(); curr.isPresent(); curr = elems.next()) {
+                heap.offer(curr.get());
+            }
+            return heap.drainDescending();
+        });
+    }
+
+    // The sign is 1 for the largest keys and -1 for the smallest
+    private <U extends Comparable<? super U>> List<T> largestKBy(final int k, final Function<? super T, ? extends U> keyExtractor, final int sign, final String name) {
+        return terminal(name, elems -> {
+            final TopKByHeap<T, U> heap = new TopKByHeap<>(k, sign, exactSize());
+            for (Optional<T> curr = elems.next(); curr.isPresent(); curr = elems.next()) {
+                heap.offer(curr.get(), keyExtractor.apply(curr.get()));
+            }
+            return heap.drainDescending();
+        });
+    }
+
+    private List<T> largestKByLong(final int k, final ToLongFunction<? super T> keyExtractor, final int sign, final String name) {
+        return terminal(name, elems -> {
+            final TopKByLongHeap<T> heap = new TopKByLongHeap<>(k, sign, exactSize());
+            for (Optional<T> curr = elems.next(); curr.isPresent(); curr = elems.next()) {
+                heap.offer(curr.get(), keyExtractor.applyAsLong(curr.get()));
+            }
+            return heap.drainDescending();
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private <A, R> R collect(final Collector<? super T, A, R> collector, final String name) {
+        final A container = collector.supplier().get();
+        final BiConsumer<A, ? super T> accumulator = collector.accumulator();
+        terminal(name, elems -> {
+            for (Optional<T> curr = elems.next(); curr.isPresent(); curr = elems.next()) {
+                accumulator.accept(container, curr.get());
+            }
+            return null;
+        });
+        return collector.characteristics().contains(Collector.Characteristics.IDENTITY_FINISH)
+            ? (R) container
+            : collector.finisher().apply(container);
+    }
+
+    // Runs a terminal operation. The body pulls the elements through the cursor,
+    // which counts them for the event reported when the operation ends
+    private <R> R terminal(final String operation, final Function<TerminalCursor<T>, R> body) {
+        return TerminalCursor.run(this, this::next, this::skip, this::close, operation, body);
+    }
+
+    // The initial capacity of a buffer for the rest of a stream
+    static int bufferCapacity(final long exactSize) {
+        if (exactSize < 0) {
+            return 16;
+        }
+        return (int) Math.min(exactSize, MAX_BUFFER_SIZE);
+    }
+
+    // The capacity of a full buffer after growing it
+    static int grownCapacity(final int capacity) {
+        if (capacity == MAX_BUFFER_SIZE) {
+            throw new OutOfMemoryError("Too many elements to buffer");
         }
+        return (int) Math.min(capacity + (capacity >> 1) + 1L, MAX_BUFFER_SIZE);
     }
 }
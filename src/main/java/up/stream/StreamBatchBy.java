@@ -0,0 +1,61 @@
+package up.stream;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+final class StreamBatchBy<T> extends Stream<List<T>> {
+    private static final int MAX_INITIAL_CAPACITY = 64;
+
+    private final Stream<T> upstream;
+    private final int maxSize;
+    private final long maxLatency;
+    private final LongSupplier clock;
+    private boolean isExhausted;
+
+    StreamBatchBy(final Stream<T> upstream, final int maxSize, final long maxLatency, final LongSupplier clock) {
+        this.upstream = upstream;
+        this.maxSize = maxSize;
+        this.maxLatency = maxLatency;
+        this.clock = clock;
+        isExhausted = false;
+    }
+
+    @Override
+    protected Optional<List<T>> next() {
+        if (isExhausted) {
+            return Optional.empty();
+        }
+
+        Optional<T> elem = upstream.next();
+        if (!elem.isPresent()) {
+            isExhausted = true;
+            return Optional.empty();
+        }
+
+        final long batchStart = clock.getAsLong();
+        final List<T> batch = new ArrayList<>(Math.min(maxSize, MAX_INITIAL_CAPACITY));
+        batch.add(elem.get());
+        // The age of the oldest element is checked before each pull
+        while (batch.size() < maxSize && clock.getAsLong() - batchStart < maxLatency) {
+            elem = upstream.next();
+            if (!elem.isPresent()) {
+                isExhausted = true;
+                break;
+            }
+            batch.add(elem.get());
+        }
+        return Optional.of(batch);
+    }
+
+    @Override
+    protected Stream<List<T>> copy() {
+        return new StreamBatchBy<>(upstream.copy(), maxSize, maxLatency, clock);
+    }
+
+    @Override
+    protected void close() {
+        upstream.close();
+    }
+}
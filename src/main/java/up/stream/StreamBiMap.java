@@ -25,4 +25,9 @@ final class StreamBiMap<T, R, S> extends BiStream<R, S> {
     protected BiStream<R, S> copy() {
         return new StreamBiMap<>(upstream.copy(), mapper);
     }
+
+    @Override
+    protected void close() {
+        upstream.close();
+    }
 }
@@ -34,8 +34,35 @@ final class StreamByteRange extends Stream<Byte> {
         return res;
     }
 
+    @Override
+    protected long skip(final long count) {
+        final long size = exactSize();
+        if (size < 0) {
+            return super.skip(count);
+        }
+        final long skipped = Math.max(0, Math.min(count, size));
+        if (skipped == size) {
+            // Past the end, where the next step could wrap around
+            curr = end;
+        } else {
+            curr += skipped * step;
+        }
+        return skipped;
+    }
+
     @Override
     protected Stream<Byte> copy() {
         return new StreamByteRange(start, end, step);
     }
+
+    @Override
+    long exactSize() {
+        if (step <= 0) {
+            return -1;
+        }
+        if (hasWrapped || curr >= end) {
+            return 0;
+        }
+        return ((long) end - curr + step - 1) / step;
+    }
 }
@@ -0,0 +1,47 @@
+package up.stream;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+
+final class StreamCharsOfReader extends Stream<Character> {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader reader;
+    private final char[] buffer;
+    private int currIndex;
+    private int len;
+
+    StreamCharsOfReader(final Reader reader) {
+        this.reader = reader;
+        buffer = new char[BUFFER_SIZE];
+        currIndex = 0;
+        len = 0;
+    }
+
+    @Override
+    protected Optional<Character> next() {
+        if (currIndex >= len && !fill()) {
+            return Optional.empty();
+        }
+        // Character#valueOf caches the ASCII characters
+        return Optional.of(buffer[currIndex++]);
+    }
+
+    @Override
+    protected Stream<Character> copy() {
+        // The reader's state cannot be reset
+        return this;
+    }
+
+    private boolean fill() {
+        try {
+            len = reader.read(buffer);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        currIndex = 0;
+        return len > 0;
+    }
+}
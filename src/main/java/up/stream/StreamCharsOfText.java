@@ -0,0 +1,31 @@
+package up.stream;
+
+import java.util.Optional;
+
+final class StreamCharsOfText extends Stream<Character> {
+    private final CharSequence text;
+    private int currIndex;
+
+    StreamCharsOfText(final CharSequence text) {
+        this.text = text;
+        currIndex = 0;
+    }
+
+    @Override
+    protected Optional<Character> next() {
+        // Character#valueOf caches the ASCII characters
+        return currIndex < text.length() ? Optional.of(text.charAt(currIndex++)) : Optional.empty();
+    }
+
+    @Override
+    protected long skip(final long count) {
+        final int skipped = (int) Math.max(0, Math.min(count, text.length() - currIndex));
+        currIndex += skipped;
+        return skipped;
+    }
+
+    @Override
+    protected Stream<Character> copy() {
+        return new StreamCharsOfText(text);
+    }
+}
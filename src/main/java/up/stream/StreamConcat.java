@@ -0,0 +1,130 @@
+package up.stream;
+
+import java.util.Optional;
+
+final class StreamConcat<T> extends Stream<T> {
+    private static final int MIN_CAPACITY = 8;
+
+    // Nested concatenations are flattened into one array of segments,
+    // so each element costs the same however many streams are joined
+    private final Stream<? extends T>[] segments;
+    private final int from;
+    private final int to;
+    private int currIndex;
+    // Whether the free space around the segments may be used by
+    // the concatenation created from this one instead of copying them
+    private boolean ownsSpace;
+
+    private StreamConcat(final Stream<? extends T>[] segments, final int from, final int to, final int currIndex) {
+        this.segments = segments;
+        this.from = from;
+        this.to = to;
+        this.currIndex = currIndex;
+        ownsSpace = true;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    static <T> Stream<T> of(final Stream<? extends T> first, final Stream<? extends T> second) {
+        if (first instanceof StreamConcat && !(second instanceof StreamConcat)) {
+            final StreamConcat<? extends T> concat = (StreamConcat<? extends T>) first;
+            if (concat.ownsSpace && concat.to < concat.segments.length) {
+                // Appending to a concatenation in a loop only copies when the array is full
+                concat.ownsSpace = false;
+                ((Stream<Object>[]) concat.segments)[concat.to] = (Stream<Object>) second;
+                return new StreamConcat<>((Stream<T>[]) concat.segments, concat.from, concat.to + 1, concat.currIndex);
+            }
+        }
+        if (second instanceof StreamConcat && !(first instanceof StreamConcat)) {
+            final StreamConcat<? extends T> concat = (StreamConcat<? extends T>) second;
+            if (concat.ownsSpace && concat.from > 0 && concat.currIndex == concat.from) {
+                concat.ownsSpace = false;
+                ((Stream<Object>[]) concat.segments)[concat.from - 1] = (Stream<Object>) first;
+                return new StreamConcat<>((Stream<T>[]) concat.segments, concat.from - 1, concat.to, concat.from - 1);
+            }
+        }
+        final int firstLen = length(first);
+        final int secondLen = length(second);
+        final int len = firstLen + secondLen;
+        final Stream<? extends T>[] res = new Stream[Math.max(MIN_CAPACITY, len * 2)];
+        // Leave free space after the segments when appending and before them when prepending
+        final int start = second instanceof StreamConcat && !(first instanceof StreamConcat) ? res.length - len : 0;
+        final int firstCurr = copyInto(first, res, start);
+        final int secondCurr = copyInto(second, res, start + firstLen);
+        final int currIndex = firstCurr < start + firstLen ? firstCurr : secondCurr;
+        return new StreamConcat<>(res, start, start + len, currIndex);
+    }
+
+    @Override
+    protected Optional<T> next() {
+        while (currIndex < to) {
+            final Optional<? extends T> elem = segments[currIndex].next();
+            if (elem.isPresent()) {
+                // Prevent Objects#requireNonNull check in Optional#map
+                return Optional.of(elem.get());
+            }
+            segments[currIndex++].close();
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    protected long skip(final long count) {
+        long skipped = 0;
+        while (skipped < count && currIndex < to) {
+            skipped += segments[currIndex].skip(count - skipped);
+            if (skipped < count) {
+                segments[currIndex++].close();
+            }
+        }
+        return skipped;
+    }
+
+    @Override
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    protected Stream<T> copy() {
+        final Stream<? extends T>[] res = new Stream[segments.length];
+        for (int i = from; i < to; ++i) {
+            res[i] = segments[i].copy();
+        }
+        return new StreamConcat<>(res, from, to, from);
+    }
+
+    @Override
+    protected void close() {
+        for (int i = currIndex; i < to; ++i) {
+            segments[i].close();
+        }
+    }
+
+    @Override
+    long exactSize() {
+        long res = 0;
+        for (int i = currIndex; i < to; ++i) {
+            final long size = segments[i].exactSize();
+            if (size < 0) {
+                return -1;
+            }
+            res += size;
+        }
+        return res;
+    }
+
+    private static int length(final Stream<?> stream) {
+        if (stream instanceof StreamConcat) {
+            final StreamConcat<?> concat = (StreamConcat<?>) stream;
+            return concat.to - concat.from;
+        }
+        return 1;
+    }
+
+    // Returns the index of the current segment of the stream in the array
+    private static <T> int copyInto(final Stream<? extends T> stream, final Stream<? extends T>[] dest, final int start) {
+        if (stream instanceof StreamConcat) {
+            final StreamConcat<? extends T> concat = (StreamConcat<? extends T>) stream;
+            System.arraycopy(concat.segments, concat.from, dest, start, concat.to - concat.from);
+            return start + concat.currIndex - concat.from;
+        }
+        dest[start] = stream;
+        return start;
+    }
+}
@@ -6,11 +6,13 @@ final class StreamCycle<T> extends Stream<T> {
     private final Stream<T> upstream;
     private final long times;
     private Stream<T> currStream;
+    private long currCycle;
 
     StreamCycle(final Stream<T> upstream, final long times) {
         this.upstream = upstream;
         this.times = times;
         currStream = upstream.copy();
+        currCycle = 1;
     }
 
     @Override
@@ -19,7 +21,9 @@ final class StreamCycle<T> extends Stream<T> {
         if (elem.isPresent()) {
             return elem;
         }
+        currStream.close();
         currStream = upstream.copy();
+        PipelineEvents.recopy(this, ++currCycle);
         return currStream.next();
     }
 
@@ -28,4 +32,9 @@ final class StreamCycle<T> extends Stream<T> {
         // Upstream is not modified
         return new StreamCycle<>(upstream, times);
     }
+
+    @Override
+    protected void close() {
+        currStream.close();
+    }
 }
@@ -0,0 +1,43 @@
+package up.stream;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+final class StreamDedupeConsecutive<T, K> extends Stream<T> {
+    private final Stream<T> upstream;
+    private final Function<? super T, ? extends K> keyExtractor;
+    // Only the key of the previous element is kept
+    private Object prevKey;
+    private boolean hasStarted;
+
+    StreamDedupeConsecutive(final Stream<T> upstream, final Function<? super T, ? extends K> keyExtractor) {
+        this.upstream = upstream;
+        this.keyExtractor = keyExtractor;
+        prevKey = null;
+        hasStarted = false;
+    }
+
+    @Override
+    protected Optional<T> next() {
+        for (Optional<T> elem = upstream.next(); elem.isPresent(); elem = upstream.next()) {
+            final K key = keyExtractor.apply(elem.get());
+            if (!hasStarted || !Objects.equals(key, prevKey)) {
+                hasStarted = true;
+                prevKey = key;
+                return elem;
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    protected Stream<T> copy() {
+        return new StreamDedupeConsecutive<>(upstream.copy(), keyExtractor);
+    }
+
+    @Override
+    protected void close() {
+        upstream.close();
+    }
+}
@@ -2,7 +2,7 @@ package up.stream;
 
 import java.util.Optional;
 
-final class StreamDrop<T> extends Stream<T> {
+final class StreamDrop<T> extends Stream<T> implements Fusible {
     private final Stream<T> upstream;
     private final long elemsToDrop;
     private boolean hasDropped;
@@ -16,9 +16,7 @@ final class StreamDrop<T> extends Stream<T> {
     @Override
     protected Optional<T> next() {
         if (!hasDropped) {
-            for (long i = 0; i < elemsToDrop; ++i) {
-                upstream.next();
-            }
+            upstream.skip(elemsToDrop);
             hasDropped = true;
         }
         return upstream.next();
@@ -28,4 +26,25 @@ final class StreamDrop<T> extends Stream<T> {
     protected Stream<T> copy() {
         return new StreamDrop<>(upstream.copy(), elemsToDrop);
     }
+
+    @Override
+    protected void close() {
+        upstream.close();
+    }
+
+    @Override
+    long exactSize() {
+        final long size = upstream.exactSize();
+        return size < 0 || hasDropped ? size : Math.max(0, size - elemsToDrop);
+    }
+
+    @Override
+    public Stream<?> upstream() {
+        return upstream;
+    }
+
+    @Override
+    public Pipeline.Op op() {
+        return new Pipeline.Op(Pipeline.Op.DROP, null, elemsToDrop);
+    }
 }
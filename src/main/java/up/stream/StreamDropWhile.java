@@ -3,7 +3,7 @@ package up.stream;
 import java.util.Optional;
 import java.util.function.Predicate;
 
-final class StreamDropWhile<T> extends Stream<T> {
+final class StreamDropWhile<T> extends Stream<T> implements Fusible {
     private final Stream<T> upstream;
     private final Predicate<? super T> predicate;
     private boolean hasDropped;
@@ -31,4 +31,19 @@ final class StreamDropWhile<T> extends Stream<T> {
     protected Stream<T> copy() {
         return new StreamDropWhile<>(upstream.copy(), predicate);
     }
+
+    @Override
+    protected void close() {
+        upstream.close();
+    }
+
+    @Override
+    public Stream<?> upstream() {
+        return upstream;
+    }
+
+    @Override
+    public Pipeline.Op op() {
+        return new Pipeline.Op(Pipeline.Op.DROP_WHILE, predicate, 0);
+    }
 }
@@ -8,9 +8,19 @@ final class StreamEmpty<T> extends Stream<T> {
         return Optional.empty();
     }
 
+    @Override
+    protected long skip(final long count) {
+        return 0;
+    }
+
     @Override
     protected Stream<T> copy() {
         // No state
         return this;
     }
+
+    @Override
+    long exactSize() {
+        return 0;
+    }
 }
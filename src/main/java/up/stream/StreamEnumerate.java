@@ -6,22 +6,48 @@ import up.stream.util.Pair;
 
 final class StreamEnumerate<T> extends BiStream<Long, T> {
     private final Stream<T> upstream;
+    private final long start;
+    private final long step;
     private long currIdx;
 
-    StreamEnumerate(final Stream<T> upstream) {
+    StreamEnumerate(final Stream<T> upstream, final long start, final long step) {
         this.upstream = upstream;
-        currIdx = 0;
+        this.start = start;
+        this.step = step;
+        currIdx = start;
     }
 
     @Override
     protected Optional<Pair<Long, T>> next() {
         // Prevent Objects#requireNonNull check in Optional#map
         final Optional<T> elem = upstream.next();
-        return elem.isPresent() ? Optional.of(new Pair<>(currIdx++, elem.get())) : Optional.empty();
+        if (!elem.isPresent()) {
+            return Optional.empty();
+        }
+        final long idx = currIdx;
+        currIdx += step;
+        return Optional.of(new Pair<>(idx, elem.get()));
+    }
+
+    @Override
+    protected long skip(final long count) {
+        final long skipped = upstream.skip(count);
+        currIdx += skipped * step;
+        return skipped;
     }
 
     @Override
     protected BiStream<Long, T> copy() {
-        return new StreamEnumerate<>(upstream.copy());
+        return new StreamEnumerate<>(upstream.copy(), start, step);
+    }
+
+    @Override
+    protected void close() {
+        upstream.close();
+    }
+
+    @Override
+    long exactSize() {
+        return upstream.exactSize();
     }
 }
@@ -0,0 +1,182 @@
+package up.stream;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+final class StreamFlatMap<T, R> extends Stream<R> {
+    private final Stream<T> upstream;
+    // Adjacent flat maps are merged when they are created, so this holds the
+    // mappers applied to the elements of upstream from the last to the first
+    private final Chain reversedMappers;
+    // Nested flat maps are unwrapped into frames instead of
+    // pulling through each other, so nesting doesn't use the call stack
+    private final Deque<Frame> frames;
+    // The counters of the unwrapped profiled flat maps by the
+    // chain which the elements they return are passed to
+    private Map<Chain, List<Profiler.Counters>> profiled;
+    private boolean hasStarted;
+
+    @SuppressWarnings("unchecked")
+    StreamFlatMap(final Stream<T> upstream, final Function<? super T, ? extends Stream<? extends R>> mapper) {
+        if (upstream instanceof StreamFlatMap && !((StreamFlatMap<?, ?>) upstream).hasStarted) {
+            // .flatMap(f).flatMap(g) pulls from the upstream of f directly
+            final StreamFlatMap<?, T> previous = (StreamFlatMap<?, T>) upstream;
+            this.upstream = (Stream<T>) previous.upstream;
+            reversedMappers = new Chain(mapper, previous.reversedMappers);
+        } else {
+            this.upstream = upstream;
+            reversedMappers = new Chain(mapper, null);
+        }
+        frames = new ArrayDeque<>();
+        profiled = null;
+        hasStarted = false;
+    }
+
+    private StreamFlatMap(final Stream<T> upstream, final Chain reversedMappers) {
+        this.upstream = upstream;
+        this.reversedMappers = reversedMappers;
+        frames = new ArrayDeque<>();
+        profiled = null;
+        hasStarted = false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected Optional<R> next() {
+        if (!hasStarted) {
+            hasStarted = true;
+            frames.push(new Frame(upstream, chain(reversedMappers, null), null, null));
+        }
+        while (!frames.isEmpty()) {
+            final Frame top = frames.peek();
+            final Optional<?> elem = top.source.next();
+            if (!elem.isPresent()) {
+                pop();
+                continue;
+            }
+            if (profiled != null) {
+                countProfiled(top.mappers);
+            }
+            if (top.mappers == null) {
+                return (Optional<R>) elem;
+            }
+            push(top.mappers.mapper.apply(elem.get()), top.mappers.next);
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    protected Stream<R> copy() {
+        return new StreamFlatMap<>(upstream.copy(), reversedMappers);
+    }
+
+    @Override
+    protected void close() {
+        if (!hasStarted) {
+            hasStarted = true;
+            upstream.close();
+        }
+        while (!frames.isEmpty()) {
+            pop();
+        }
+    }
+
+    // Pushes an inner stream whose elements are mapped by the rest of the chain
+    private void push(final Stream<?> inner, final Chain rest) {
+        if (inner == null) {
+            // Same as an empty stream
+            return;
+        }
+        Stream<?> stage = inner;
+        if (inner instanceof StreamProfiled) {
+            stage = ((StreamProfiled<?>) inner).stage();
+        }
+        if (!(stage instanceof StreamFlatMap) || ((StreamFlatMap<?, ?>) stage).hasStarted) {
+            frames.push(new Frame(inner, rest, null, null));
+            return;
+        }
+        final StreamFlatMap<?, ?> nested = (StreamFlatMap<?, ?>) stage;
+        // The nested flat map can't be used anymore, so it is marked
+        // as started to keep it from being unwrapped twice
+        nested.hasStarted = true;
+        final Profiler.Counters counters = inner.counters();
+        frames.push(new Frame(nested.upstream, chain(nested.reversedMappers, rest), rest, counters));
+        if (counters != null) {
+            if (profiled == null) {
+                profiled = new IdentityHashMap<>();
+            }
+            profiled.computeIfAbsent(rest, chain -> new ArrayList<>()).add(counters);
+        }
+    }
+
+    private void pop() {
+        final Frame frame = frames.pop();
+        frame.source.close();
+        if (frame.counters != null) {
+            // Frames are popped in the reverse order of being pushed
+            final List<Profiler.Counters> counters = profiled.get(frame.end);
+            counters.remove(counters.size() - 1);
+            if (counters.isEmpty()) {
+                profiled.remove(frame.end);
+            }
+            frame.counters.onClose();
+        }
+    }
+
+    // An element passed to the chain which follows an unwrapped profiled flat map
+    // is returned by that flat map. Only the elements are counted, the time spent
+    // in the flat map isn't measured
+    private void countProfiled(final Chain mappers) {
+        final List<Profiler.Counters> counters = profiled.get(mappers);
+        if (counters != null) {
+            for (final Profiler.Counters curr : counters) {
+                ++curr.elements;
+            }
+        }
+    }
+
+    // The mappers from the first to the last followed by the rest
+    private static Chain chain(final Chain reversedMappers, final Chain rest) {
+        Chain res = rest;
+        for (Chain curr = reversedMappers; curr != null; curr = curr.next) {
+            res = new Chain(curr.mapper, res);
+        }
+        return res;
+    }
+
+    // A linked list of mappers which is shared by the frames using it
+    private static final class Chain {
+        private final Function<Object, ? extends Stream<?>> mapper;
+        private final Chain next;
+
+        @SuppressWarnings("unchecked")
+        private Chain(final Function<?, ?> mapper, final Chain next) {
+            this.mapper = (Function<Object, ? extends Stream<?>>) mapper;
+            this.next = next;
+        }
+    }
+
+    private static final class Frame {
+        private final Stream<?> source;
+        // Maps the elements of the source to streams, or null
+        // if the elements of the source are the result
+        private final Chain mappers;
+        // The chain following an unwrapped profiled flat map
+        // and its counters, or null for other frames
+        private final Chain end;
+        private final Profiler.Counters counters;
+
+        private Frame(final Stream<?> source, final Chain mappers, final Chain end, final Profiler.Counters counters) {
+            this.source = source;
+            this.mappers = mappers;
+            this.end = end;
+            this.counters = counters;
+        }
+    }
+}
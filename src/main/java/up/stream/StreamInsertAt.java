@@ -0,0 +1,83 @@
+package up.stream;
+
+import java.util.Optional;
+
+final class StreamInsertAt<T> extends Stream<T> {
+    private final Stream<T> upstream;
+    private final long index;
+    private final Stream<? extends T> inserted;
+    private long currIndex;
+    private boolean hasInserted;
+
+    StreamInsertAt(final Stream<T> upstream, final long index, final Stream<? extends T> inserted) {
+        this.upstream = upstream;
+        this.index = index;
+        this.inserted = inserted;
+        currIndex = 0;
+        hasInserted = false;
+    }
+
+    @Override
+    protected Optional<T> next() {
+        if (!hasInserted) {
+            if (currIndex < index) {
+                final Optional<T> elem = upstream.next();
+                if (elem.isPresent()) {
+                    ++currIndex;
+                    return elem;
+                }
+            }
+            final Optional<? extends T> elem = inserted.next();
+            if (elem.isPresent()) {
+                // Prevent Objects#requireNonNull check in Optional#map
+                return Optional.of(elem.get());
+            }
+            inserted.close();
+            hasInserted = true;
+        }
+        return upstream.next();
+    }
+
+    @Override
+    protected long skip(final long count) {
+        long skipped = 0;
+        if (!hasInserted && currIndex < index) {
+            final long before = upstream.skip(Math.min(count, index - currIndex));
+            currIndex += before;
+            skipped += before;
+            if (currIndex < index && skipped < count) {
+                // Upstream has ended before the index
+                currIndex = index;
+            }
+        }
+        if (!hasInserted && skipped < count && currIndex >= index) {
+            skipped += inserted.skip(count - skipped);
+            if (skipped < count) {
+                inserted.close();
+                hasInserted = true;
+            }
+        }
+        if (hasInserted && skipped < count) {
+            skipped += upstream.skip(count - skipped);
+        }
+        return skipped;
+    }
+
+    @Override
+    protected Stream<T> copy() {
+        return new StreamInsertAt<>(upstream.copy(), index, inserted.copy());
+    }
+
+    @Override
+    protected void close() {
+        upstream.close();
+        inserted.close();
+    }
+
+    @Override
+    long exactSize() {
+        final long size = upstream.exactSize();
+        final long insertedSize = hasInserted ? 0 : inserted.exactSize();
+        return size < 0 || insertedSize < 0 ? -1 : size + insertedSize;
+    }
+}
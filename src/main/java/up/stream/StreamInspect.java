@@ -3,7 +3,7 @@ package up.stream;
 import java.util.Optional;
 import java.util.function.Consumer;
 
-final class StreamInspect<T> extends Stream<T> {
+final class StreamInspect<T> extends Stream<T> implements Fusible {
     private final Stream<T> upstream;
     private final Consumer<? super T> action;
 
@@ -23,4 +23,24 @@ final class StreamInspect<T> extends Stream<T> {
     protected Stream<T> copy() {
         return new StreamInspect<>(upstream.copy(), action);
     }
+
+    @Override
+    protected void close() {
+        upstream.close();
+    }
+
+    @Override
+    long exactSize() {
+        return upstream.exactSize();
+    }
+
+    @Override
+    public Stream<?> upstream() {
+        return upstream;
+    }
+
+    @Override
+    public Pipeline.Op op() {
+        return new Pipeline.Op(Pipeline.Op.INSPECT, action, 0);
+    }
 }
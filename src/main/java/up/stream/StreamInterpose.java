@@ -0,0 +1,56 @@
+package up.stream;
+
+import java.util.Optional;
+
+final class StreamInterpose<T> extends Stream<T> {
+    private final Stream<T> upstream;
+    private final T separator;
+    private Optional<T> pending;
+    private boolean hasStarted;
+
+    StreamInterpose(final Stream<T> upstream, final T separator) {
+        this.upstream = upstream;
+        this.separator = separator;
+        pending = Optional.empty();
+        hasStarted = false;
+    }
+
+    @Override
+    protected Optional<T> next() {
+        if (pending.isPresent()) {
+            final Optional<T> elem = pending;
+            pending = Optional.empty();
+            return elem;
+        }
+        final Optional<T> elem = upstream.next();
+        if (!hasStarted || !elem.isPresent()) {
+            hasStarted = true;
+            return elem;
+        }
+        // The separator goes before every element but the first
+        pending = elem;
+        return Optional.of(separator);
+    }
+
+    @Override
+    protected Stream<T> copy() {
+        return new StreamInterpose<>(upstream.copy(), separator);
+    }
+
+    @Override
+    protected void close() {
+        upstream.close();
+    }
+
+    @Override
+    long exactSize() {
+        final long size = upstream.exactSize();
+        if (size < 0) {
+            return -1;
+        }
+        if (pending.isPresent()) {
+            return 2 * size + 1;
+        }
+        return hasStarted ? 2 * size : Math.max(0, 2 * size - 1);
+    }
+}
@@ -0,0 +1,136 @@
+package up.stream;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Optional;
+
+final class StreamLinesOfFile extends Stream<String> {
+    private static final int REGION_SIZE = 1 << 26;
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+
+    private final Path path;
+    private final Charset charset;
+    private MappedByteBuffer region;
+    private long regionStart;
+    private long fileSize;
+    private long position;
+    private int lineFrom;
+    private int lineTo;
+    private byte[] scratch;
+
+    StreamLinesOfFile(final Path path, final Charset charset) {
+        this.path = path;
+        this.charset = charset;
+        region = null;
+        regionStart = 0;
+        fileSize = 0;
+        position = 0;
+        lineFrom = 0;
+        lineTo = 0;
+        scratch = new byte[128];
+    }
+
+    static boolean isSupported(final Charset charset) {
+        // Terminators are searched for byte by byte, which only works
+        // if they are encoded as single bytes that no other character uses
+        return Arrays.equals("\n\r".getBytes(charset), new byte[] { LF, CR });
+    }
+
+    @Override
+    protected Optional<String> next() {
+        return advance() ? Optional.of(decode(lineFrom, lineTo)) : Optional.empty();
+    }
+
+    @Override
+    protected long skip(final long count) {
+        // Skipped lines are never decoded
+        long skipped = 0;
+        while (skipped < count && advance()) {
+            ++skipped;
+        }
+        return skipped;
+    }
+
+    @Override
+    protected Stream<String> copy() {
+        return new StreamLinesOfFile(path, charset);
+    }
+
+    private boolean advance() {
+        if (region == null) {
+            map(0, REGION_SIZE);
+        }
+
+        while (position < fileSize) {
+            final int from = (int) (position - regionStart);
+            final int limit = region.limit();
+            final boolean isLastRegion = regionStart + limit >= fileSize;
+
+            for (int i = from; i < limit; ++i) {
+                final byte b = region.get(i);
+                if (b != LF && b != CR) {
+                    continue;
+                }
+                if (b == CR && i + 1 == limit && !isLastRegion) {
+                    // Whether the terminator is CRLF is decided in the next region
+                    break;
+                }
+
+                final boolean isCrLf = b == CR && i + 1 < limit && region.get(i + 1) == LF;
+                lineFrom = from;
+                lineTo = i;
+                position = regionStart + i + (isCrLf ? 2 : 1);
+                return true;
+            }
+
+            if (isLastRegion) {
+                lineFrom = from;
+                lineTo = limit;
+                position = fileSize;
+                return true;
+            }
+            // The line continues past this region, so map a new one
+            // starting at the line, growing it if the line doesn't fit
+            if (from == 0 && limit == Integer.MAX_VALUE) {
+                throw new IllegalStateException("Line at offset " + position + " is longer than " + limit + " bytes");
+            }
+            map(position, from == 0 ? (long) limit * 2 : REGION_SIZE);
+        }
+        return false;
+    }
+
+    private void map(final long start, final long size) {
+        // The mapping stays valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            fileSize = channel.size();
+            final long len = Math.min(Math.min(size, Integer.MAX_VALUE), fileSize - start);
+            region = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.max(len, 0));
+            PipelineEvents.bufferAllocation(this, region.capacity(), true);
+            regionStart = start;
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String decode(final int from, final int to) {
+        final int len = to - from;
+        if (len > scratch.length) {
+            scratch = new byte[Math.max(len, scratch.length * 2)];
+            PipelineEvents.bufferAllocation(this, scratch.length, false);
+        }
+        final ByteBuffer view = region.duplicate();
+        // Cast for compatibility with the Java 8 signature
+        ((Buffer) view).position(from);
+        view.get(scratch, 0, len);
+        return new String(scratch, 0, len, charset);
+    }
+}
@@ -0,0 +1,29 @@
+package up.stream;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+
+final class StreamLinesOfReader extends Stream<String> {
+    private final BufferedReader reader;
+
+    StreamLinesOfReader(final BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    protected Optional<String> next() {
+        try {
+            return Optional.ofNullable(reader.readLine());
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    protected Stream<String> copy() {
+        // The reader's state cannot be reset
+        return this;
+    }
+}
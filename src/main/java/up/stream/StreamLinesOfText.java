@@ -0,0 +1,42 @@
+package up.stream;
+
+import java.util.Optional;
+
+import up.stream.util.CharSlice;
+
+final class StreamLinesOfText extends Stream<CharSlice> {
+    private final CharSequence text;
+    private int currIndex;
+
+    StreamLinesOfText(final CharSequence text) {
+        this.text = text;
+        currIndex = 0;
+    }
+
+    @Override
+    protected Optional<CharSlice> next() {
+        final int len = text.length();
+        if (currIndex >= len) {
+            return Optional.empty();
+        }
+
+        final int start = currIndex;
+        while (currIndex < len) {
+            final char c = text.charAt(currIndex);
+            if (c == '\n' || c == '\r') {
+                final CharSlice line = new CharSlice(text, start, currIndex++);
+                if (c == '\r' && currIndex < len && text.charAt(currIndex) == '\n') {
+                    ++currIndex;
+                }
+                return Optional.of(line);
+            }
+            ++currIndex;
+        }
+        return Optional.of(new CharSlice(text, start, len));
+    }
+
+    @Override
+    protected Stream<CharSlice> copy() {
+        return new StreamLinesOfText(text);
+    }
+}
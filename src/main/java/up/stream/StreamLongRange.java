@@ -34,8 +34,37 @@ final class StreamLongRange extends Stream<Long> {
         return res;
     }
 
+    @Override
+    protected long skip(final long count) {
+        final long size = exactSize();
+        if (size < 0) {
+            return super.skip(count);
+        }
+        final long skipped = Math.max(0, Math.min(count, size));
+        if (skipped == size) {
+            // Past the end, where the next step could wrap around
+            curr = end;
+        } else {
+            curr += skipped * step;
+        }
+        return skipped;
+    }
+
     @Override
     protected Stream<Long> copy() {
         return new StreamLongRange(start, end, step);
     }
+
+    @Override
+    long exactSize() {
+        if (step <= 0) {
+            return -1;
+        }
+        if (hasWrapped || curr >= end) {
+            return 0;
+        }
+        // The distance to the end may not fit into a signed long
+        final long size = Long.divideUnsigned(end - curr - 1, step) + 1;
+        return size < 0 ? -1 : size;
+    }
 }
@@ -3,13 +3,15 @@ package up.stream;
 import java.util.Optional;
 import java.util.function.Function;
 
-final class StreamMap<T, R> extends Stream<R> {
+final class StreamMap<T, R> extends Stream<R> implements Fusible {
     private final Stream<T> upstream;
     private final Function<? super T, ? extends R> mapper;
+    private final boolean isPure;
 
-    StreamMap(final Stream<T> upstream, final Function<? super T, ? extends R> mapper) {
+    StreamMap(final Stream<T> upstream, final Function<? super T, ? extends R> mapper, final boolean isPure) {
         this.upstream = upstream;
         this.mapper = mapper;
+        this.isPure = isPure;
     }
 
     @Override
@@ -19,8 +21,36 @@ final class StreamMap<T, R> extends Stream<R> {
         return elem.isPresent() ? Optional.ofNullable(mapper.apply(elem.get())) : Optional.empty();
     }
 
+    @Override
+    protected long skip(final long count) {
+        // A pure mapper can't end the stream or have side effects,
+        // so skipped elements don't need to be mapped
+        return isPure ? upstream.skip(count) : super.skip(count);
+    }
+
     @Override
     protected Stream<R> copy() {
-        return new StreamMap<>(upstream.copy(), mapper);
+        return new StreamMap<>(upstream.copy(), mapper, isPure);
+    }
+
+    @Override
+    protected void close() {
+        upstream.close();
+    }
+
+    @Override
+    long exactSize() {
+        // Any other mapper may end the stream early by returning null
+        return isPure ? upstream.exactSize() : -1;
+    }
+
+    @Override
+    public Stream<?> upstream() {
+        return upstream;
+    }
+
+    @Override
+    public Pipeline.Op op() {
+        return new Pipeline.Op(isPure ? Pipeline.Op.PURE_MAP : Pipeline.Op.MAP, mapper, 0);
     }
 }
@@ -0,0 +1,75 @@
+package up.stream;
+
+import java.util.ArrayDeque;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+final class StreamMapConcurrent<T, R> extends Stream<R> {
+    private final Stream<T> upstream;
+    private final int maxInFlight;
+    private final Executor executor;
+    private final Function<? super T, ? extends R> mapper;
+    private final Queue<CompletableFuture<R>> inFlight;
+    private boolean hasUpstreamEnded;
+
+    StreamMapConcurrent(final Stream<T> upstream, final int maxInFlight, final Executor executor, final Function<? super T, ? extends R> mapper) {
+        this.upstream = upstream;
+        this.maxInFlight = maxInFlight;
+        this.executor = executor;
+        this.mapper = mapper;
+        inFlight = new ArrayDeque<>(maxInFlight);
+        hasUpstreamEnded = false;
+    }
+
+    static <R> R await(final CompletableFuture<R> future, final Stream<?> stream) {
+        try {
+            return future.join();
+        } catch (final CompletionException e) {
+            stream.close();
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    protected Optional<R> next() {
+        while (!hasUpstreamEnded && inFlight.size() < maxInFlight) {
+            final Optional<T> elem = upstream.next();
+            if (elem.isPresent()) {
+                final T value = elem.get();
+                inFlight.add(CompletableFuture.supplyAsync(() -> mapper.apply(value), executor));
+            } else {
+                hasUpstreamEnded = true;
+            }
+        }
+
+        // The oldest call is awaited even if later ones have
+        // completed, which keeps the elements in order
+        final CompletableFuture<R> oldest = inFlight.poll();
+        return oldest == null ? Optional.empty() : Optional.ofNullable(await(oldest, this));
+    }
+
+    @Override
+    protected Stream<R> copy() {
+        return new StreamMapConcurrent<>(upstream.copy(), maxInFlight, executor, mapper);
+    }
+
+    @Override
+    protected void close() {
+        // Calls which haven't started yet will not be run
+        for (CompletableFuture<R> future = inFlight.poll(); future != null; future = inFlight.poll()) {
+            future.cancel(false);
+        }
+        upstream.close();
+    }
+}
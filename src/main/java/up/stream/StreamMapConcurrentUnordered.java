@@ -0,0 +1,76 @@
+package up.stream;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Function;
+
+final class StreamMapConcurrentUnordered<T, R> extends Stream<R> {
+    private final Stream<T> upstream;
+    private final int maxInFlight;
+    private final Executor executor;
+    private final Function<? super T, ? extends R> mapper;
+    private final Set<CompletableFuture<R>> inFlight;
+    private final BlockingQueue<CompletableFuture<R>> completed;
+    private boolean hasUpstreamEnded;
+
+    StreamMapConcurrentUnordered(final Stream<T> upstream, final int maxInFlight, final Executor executor, final Function<? super T, ? extends R> mapper) {
+        this.upstream = upstream;
+        this.maxInFlight = maxInFlight;
+        this.executor = executor;
+        this.mapper = mapper;
+        inFlight = new HashSet<>();
+        completed = new LinkedBlockingQueue<>();
+        hasUpstreamEnded = false;
+    }
+
+    @Override
+    protected Optional<R> next() {
+        while (!hasUpstreamEnded && inFlight.size() < maxInFlight) {
+            final Optional<T> elem = upstream.next();
+            if (elem.isPresent()) {
+                final T value = elem.get();
+                final CompletableFuture<R> future = CompletableFuture.supplyAsync(() -> mapper.apply(value), executor);
+                inFlight.add(future);
+                future.whenComplete((res, e) -> completed.add(future));
+            } else {
+                hasUpstreamEnded = true;
+            }
+        }
+        if (inFlight.isEmpty()) {
+            return Optional.empty();
+        }
+
+        final CompletableFuture<R> first;
+        try {
+            first = completed.take();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new CancellationException("Interrupted while waiting for the next element");
+        }
+        inFlight.remove(first);
+        return Optional.ofNullable(StreamMapConcurrent.await(first, this));
+    }
+
+    @Override
+    protected Stream<R> copy() {
+        return new StreamMapConcurrentUnordered<>(upstream.copy(), maxInFlight, executor, mapper);
+    }
+
+    @Override
+    protected void close() {
+        // Calls which haven't started yet will not be run
+        for (CompletableFuture<R> future : inFlight) {
+            future.cancel(false);
+        }
+        inFlight.clear();
+        completed.clear();
+        upstream.close();
+    }
+}
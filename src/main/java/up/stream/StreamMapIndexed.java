@@ -0,0 +1,34 @@
+package up.stream;
+
+import java.util.Optional;
+
+import up.stream.function.LongObjFunction;
+
+final class StreamMapIndexed<T, R> extends Stream<R> {
+    private final Stream<T> upstream;
+    private final LongObjFunction<? super T, ? extends R> mapper;
+    private long currIndex;
+
+    StreamMapIndexed(final Stream<T> upstream, final LongObjFunction<? super T, ? extends R> mapper) {
+        this.upstream = upstream;
+        this.mapper = mapper;
+        currIndex = 0;
+    }
+
+    @Override
+    protected Optional<R> next() {
+        // Prevent Objects#requireNonNull check in Optional#map
+        final Optional<T> elem = upstream.next();
+        return elem.isPresent() ? Optional.ofNullable(mapper.apply(currIndex++, elem.get())) : Optional.empty();
+    }
+
+    @Override
+    protected Stream<R> copy() {
+        return new StreamMapIndexed<>(upstream.copy(), mapper);
+    }
+
+    @Override
+    protected void close() {
+        upstream.close();
+    }
+}
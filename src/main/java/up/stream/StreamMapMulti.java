@@ -0,0 +1,48 @@
+package up.stream;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+final class StreamMapMulti<T, R> extends Stream<R> {
+    private final Stream<T> upstream;
+    private final BiConsumer<? super T, ? super Consumer<R>> mapper;
+    private final List<R> buffer;
+    // Created once so that each element doesn't allocate a consumer
+    private final Consumer<R> sink;
+    private int currIndex;
+
+    StreamMapMulti(final Stream<T> upstream, final BiConsumer<? super T, ? super Consumer<R>> mapper) {
+        this.upstream = upstream;
+        this.mapper = mapper;
+        buffer = new ArrayList<>();
+        sink = buffer::add;
+        currIndex = 0;
+    }
+
+    @Override
+    protected Optional<R> next() {
+        while (currIndex == buffer.size()) {
+            buffer.clear();
+            currIndex = 0;
+            final Optional<T> elem = upstream.next();
+            if (!elem.isPresent()) {
+                return Optional.empty();
+            }
+            mapper.accept(elem.get(), sink);
+        }
+        return Optional.ofNullable(buffer.get(currIndex++));
+    }
+
+    @Override
+    protected Stream<R> copy() {
+        return new StreamMapMulti<>(upstream.copy(), mapper);
+    }
+
+    @Override
+    protected void close() {
+        upstream.close();
+    }
+}
@@ -0,0 +1,38 @@
+package up.stream;
+
+import java.util.Optional;
+import java.util.function.BiFunction;
+
+final class StreamMergeWith<T, U, R> extends Stream<R> {
+    private final Stream<T> first;
+    private final Stream<U> second;
+    private final BiFunction<? super T, ? super U, ? extends R> merger;
+
+    StreamMergeWith(final Stream<T> first, final Stream<U> second, final BiFunction<? super T, ? super U, ? extends R> merger) {
+        this.first = first;
+        this.second = second;
+        this.merger = merger;
+    }
+
+    @Override
+    protected Optional<R> next() {
+        final Optional<T> firstElem = first.next();
+        if (!firstElem.isPresent()) {
+            return Optional.empty();
+        }
+        final Optional<U> secondElem = second.next();
+        // Prevent Objects#requireNonNull check in Optional#map
+        return secondElem.isPresent() ? Optional.ofNullable(merger.apply(firstElem.get(), secondElem.get())) : Optional.empty();
+    }
+
+    @Override
+    protected Stream<R> copy() {
+        return new StreamMergeWith<>(first.copy(), second.copy(), merger);
+    }
+
+    @Override
+    protected void close() {
+        first.close();
+        second.close();
+    }
+}
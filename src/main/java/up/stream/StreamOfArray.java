@@ -1,6 +1,8 @@
 package up.stream;
 
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Random;
 
 final class StreamOfArray<T> extends Stream<T> {
     private final T[] source;
@@ -90,8 +92,27 @@ final class StreamOfArray<T> extends Stream<T> {
         return currIndex < len ? Optional.of(source[currIndex++]) : Optional.empty();
     }
 
+    @Override
+    protected long skip(final long count) {
+        final int skipped = (int) Math.max(0, Math.min(count, len - currIndex));
+        currIndex += skipped;
+        return skipped;
+    }
+
     @Override
     protected Stream<T> copy() {
         return new StreamOfArray<>(source);
     }
+
+    @Override
+    long exactSize() {
+        return len - currIndex;
+    }
+
+    @Override
+    public Stream<T> shuffle(final Random random) {
+        Objects.requireNonNull(random);
+        // The remaining elements are read in random order instead of being copied
+        return Profiler.track(this, new StreamShuffleIndexed<>(i -> source[i], currIndex, len, random), "shuffle");
+    }
 }
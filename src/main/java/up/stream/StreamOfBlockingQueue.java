@@ -0,0 +1,104 @@
+package up.stream;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+
+final class StreamOfBlockingQueue<T> extends Stream<T> {
+    // Small, since the drained elements can't be taken by other consumers
+    private static final int BATCH_SIZE = 16;
+
+    private final BlockingQueue<T> queue;
+    private final long pollTimeout;
+    private final T endMarker;
+    // Drained in batches so that the lock of the queue isn't taken for each element
+    private final ArrayDeque<T> batch;
+    private boolean hasEnded;
+
+    StreamOfBlockingQueue(final BlockingQueue<T> queue, final long pollTimeout, final T endMarker) {
+        this.queue = queue;
+        this.pollTimeout = pollTimeout;
+        this.endMarker = endMarker;
+        batch = new ArrayDeque<>();
+        hasEnded = false;
+    }
+
+    @Override
+    protected Optional<T> next() {
+        if (hasEnded) {
+            return Optional.empty();
+        }
+        // A bounded queue is drained only as far as it has room left, so the
+        // elements can usually be given back if the stream is closed early
+        if (batch.isEmpty() && queue.drainTo(batch, Math.min(BATCH_SIZE, queue.remainingCapacity())) == 0) {
+            final T elem;
+            try {
+                elem = queue.poll(pollTimeout, TimeUnit.NANOSECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new CancellationException("Interrupted while waiting for the next element");
+            }
+            if (elem == null) {
+                // Nothing arrived in time
+                close();
+                return Optional.empty();
+            }
+            batch.add(elem);
+        }
+        final T elem = batch.poll();
+        if (Objects.equals(elem, endMarker)) {
+            // The marker ends only this stream, the elements after it belong to other consumers
+            close();
+            return Optional.empty();
+        }
+        return Optional.of(elem);
+    }
+
+    @Override
+    protected Stream<T> copy() {
+        return new StreamOfBlockingQueue<>(queue, pollTimeout, endMarker);
+    }
+
+    @Override
+    protected void close() {
+        hasEnded = true;
+        if (!batch.isEmpty()) {
+            giveBack();
+        }
+    }
+
+    // Puts the drained elements which haven't been returned back into the queue,
+    // at its head if it is a deque so that their order is kept. Waiting for room
+    // is bounded by the poll timeout, since the only consumer of a full queue
+    // may be this stream
+    private void giveBack() {
+        final long deadline = System.nanoTime() + pollTimeout;
+        while (!batch.isEmpty()) {
+            final boolean wasAdded;
+            try {
+                final long timeout = Math.max(0, deadline - System.nanoTime());
+                if (queue instanceof BlockingDeque) {
+                    wasAdded = ((BlockingDeque<T>) queue).offerFirst(batch.peekLast(), timeout, TimeUnit.NANOSECONDS);
+                } else {
+                    wasAdded = queue.offer(batch.peekFirst(), timeout, TimeUnit.NANOSECONDS);
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while giving back " + batch.size() + " elements");
+            }
+            if (!wasAdded) {
+                throw new IllegalStateException("No room to give back " + batch.size() + " elements");
+            }
+            if (queue instanceof BlockingDeque) {
+                batch.pollLast();
+            } else {
+                batch.pollFirst();
+            }
+        }
+    }
+}
@@ -2,24 +2,50 @@ package up.stream;
 
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Random;
+import java.util.RandomAccess;
 
 final class StreamOfCollection<T> extends Stream<T> {
     private final Collection<T> collection;
     private final Iterator<T> iter;
+    private int currIndex;
 
     StreamOfCollection(final Collection<T> collection) {
         this.collection = collection;
         iter = collection.iterator();
+        currIndex = 0;
     }
 
     @Override
     protected Optional<T> next() {
-        return iter.hasNext() ? Optional.of(iter.next()) : Optional.empty();
+        if (!iter.hasNext()) {
+            return Optional.empty();
+        }
+        ++currIndex;
+        return Optional.of(iter.next());
     }
 
     @Override
     protected Stream<T> copy() {
         return new StreamOfCollection<>(collection);
     }
+
+    @Override
+    long exactSize() {
+        return Math.max(0, collection.size() - currIndex);
+    }
+
+    @Override
+    public Stream<T> shuffle(final Random random) {
+        Objects.requireNonNull(random);
+        if (currIndex > 0 || !(collection instanceof List) || !(collection instanceof RandomAccess)) {
+            return super.shuffle(random);
+        }
+        // The elements are read in random order instead of being copied
+        final List<T> list = (List<T>) collection;
+        return Profiler.track(this, new StreamShuffleIndexed<>(list::get, 0, list.size(), random), "shuffle");
+    }
 }
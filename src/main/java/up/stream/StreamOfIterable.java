@@ -0,0 +1,24 @@
+package up.stream;
+
+import java.util.Iterator;
+import java.util.Optional;
+
+final class StreamOfIterable<T> extends Stream<T> {
+    private final Iterable<T> iterable;
+    private final Iterator<T> iter;
+
+    StreamOfIterable(final Iterable<T> iterable) {
+        this.iterable = iterable;
+        iter = iterable.iterator();
+    }
+
+    @Override
+    protected Optional<T> next() {
+        return iter.hasNext() ? Optional.of(iter.next()) : Optional.empty();
+    }
+
+    @Override
+    protected Stream<T> copy() {
+        return new StreamOfIterable<>(iterable);
+    }
+}
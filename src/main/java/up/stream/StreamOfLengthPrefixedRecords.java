@@ -0,0 +1,65 @@
+package up.stream;
+
+import java.nio.ByteBuffer;
+import java.util.Optional;
+
+final class StreamOfLengthPrefixedRecords extends Stream<ByteRecord> {
+    private final ByteBuffer buffer;
+    private final int start;
+    private final int end;
+    private final ByteRecord record;
+    private int currPosition;
+    private long currIndex;
+
+    StreamOfLengthPrefixedRecords(final ByteBuffer buffer) {
+        this(buffer, buffer.position(), buffer.limit());
+    }
+
+    private StreamOfLengthPrefixedRecords(final ByteBuffer buffer, final int start, final int end) {
+        this.buffer = buffer;
+        this.start = start;
+        this.end = end;
+        record = new ByteRecord(buffer);
+        currPosition = start;
+        currIndex = 0;
+    }
+
+    @Override
+    protected Optional<ByteRecord> next() {
+        if (currPosition >= end) {
+            return Optional.empty();
+        }
+        final int length = readLength();
+        record.moveTo(buffer, currPosition + Integer.BYTES, length, currIndex++);
+        currPosition += Integer.BYTES + length;
+        return Optional.of(record);
+    }
+
+    @Override
+    protected long skip(final long count) {
+        // Only the length prefixes are read
+        long skipped = 0;
+        while (skipped < count && currPosition < end) {
+            currPosition += Integer.BYTES + readLength();
+            ++currIndex;
+            ++skipped;
+        }
+        return skipped;
+    }
+
+    @Override
+    protected Stream<ByteRecord> copy() {
+        return new StreamOfLengthPrefixedRecords(buffer, start, end);
+    }
+
+    private int readLength() {
+        if (end - currPosition < Integer.BYTES) {
+            throw new IllegalStateException("Truncated length prefix at position " + currPosition);
+        }
+        final int length = buffer.getInt(currPosition);
+        if (length < 0 || length > end - currPosition - Integer.BYTES) {
+            throw new IllegalStateException("Invalid record length " + length + " at position " + currPosition);
+        }
+        return length;
+    }
+}
@@ -2,30 +2,129 @@ package up.stream;
 
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
 
 import up.stream.util.Pair;
 
 final class StreamOfMap<T, U> extends BiStream<T, U> {
     private final Map<T, U> map;
     private final Iterator<Map.Entry<T, U>> iter;
+    private int currIndex;
 
     StreamOfMap(final Map<T, U> map) {
         this.map = map;
         iter = map.entrySet().iterator();
+        currIndex = 0;
     }
 
     @Override
     protected Optional<Pair<T, U>> next() {
         if (iter.hasNext()) {
             final Map.Entry<T, U> entry = iter.next();
+            ++currIndex;
             return Optional.of(new Pair<>(entry.getKey(), entry.getValue()));
         }
         return Optional.empty();
     }
 
+    @Override
+    protected long skip(final long count) {
+        // Skipped entries don't need to be paired
+        long skipped = 0;
+        while (skipped < count && iter.hasNext()) {
+            iter.next();
+            ++skipped;
+        }
+        currIndex += (int) skipped;
+        return skipped;
+    }
+
     @Override
     protected BiStream<T, U> copy() {
         return new StreamOfMap<>(map);
     }
+
+    @Override
+    long exactSize() {
+        return Math.max(0, map.size() - currIndex);
+    }
+
+    // The operations below read the entries without creating pairs
+
+    @Override
+    public <R> Stream<R> map(final BiFunction<? super T, ? super U, ? extends R> mapper) {
+        Objects.requireNonNull(mapper);
+        if (currIndex > 0) {
+            return super.map(mapper);
+        }
+        final Stream<Map.Entry<T, U>> entries = new StreamOfCollection<>(map.entrySet());
+        return Profiler.track(this, new StreamMap<>(entries, entry -> mapper.apply(entry.getKey(), entry.getValue()), false), "map");
+    }
+
+    @Override
+    public Stream<T> keys() {
+        if (currIndex > 0) {
+            return super.keys();
+        }
+        // Mapped from the entries, so a null key ends the stream as it does for the pairs
+        final Stream<Map.Entry<T, U>> entries = new StreamOfCollection<>(map.entrySet());
+        return Profiler.track(this, new StreamMap<>(entries, Map.Entry::getKey, false), "keys");
+    }
+
+    @Override
+    public Stream<U> values() {
+        if (currIndex > 0) {
+            return super.values();
+        }
+        // Mapped from the entries, so a null value ends the stream as it does for the pairs
+        final Stream<Map.Entry<T, U>> entries = new StreamOfCollection<>(map.entrySet());
+        return Profiler.track(this, new StreamMap<>(entries, Map.Entry::getValue, false), "values");
+    }
+
+    @Override
+    public boolean allMatch(final BiPredicate<? super T, ? super U> predicate) {
+        Objects.requireNonNull(predicate);
+        return terminal("allMatch", pairs -> {
+            while (iter.hasNext()) {
+                final Map.Entry<T, U> entry = iter.next();
+                pairs.pulled();
+                if (!predicate.test(entry.getKey(), entry.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    @Override
+    public boolean anyMatch(final BiPredicate<? super T, ? super U> predicate) {
+        Objects.requireNonNull(predicate);
+        return terminal("anyMatch", pairs -> {
+            while (iter.hasNext()) {
+                final Map.Entry<T, U> entry = iter.next();
+                pairs.pulled();
+                if (predicate.test(entry.getKey(), entry.getValue())) {
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+
+    @Override
+    public void forEach(final BiConsumer<? super T, ? super U> action) {
+        Objects.requireNonNull(action);
+        terminal("forEach", pairs -> {
+            while (iter.hasNext()) {
+                final Map.Entry<T, U> entry = iter.next();
+                pairs.pulled();
+                action.accept(entry.getKey(), entry.getValue());
+            }
+            return null;
+        });
+    }
 }
@@ -0,0 +1,54 @@
+package up.stream;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
+
+final class StreamOfQueue<T> extends Stream<T> {
+    private final Queue<T> queue;
+    private final IdleStrategy idleStrategy;
+    private final T endMarker;
+    private boolean hasEnded;
+
+    StreamOfQueue(final Queue<T> queue, final IdleStrategy idleStrategy, final T endMarker) {
+        this.queue = queue;
+        this.idleStrategy = idleStrategy;
+        this.endMarker = endMarker;
+        hasEnded = false;
+    }
+
+    @Override
+    protected Optional<T> next() {
+        if (hasEnded) {
+            return Optional.empty();
+        }
+        T elem = queue.poll();
+        int idleCount = 0;
+        while (elem == null) {
+            // Stays at the maximum instead of overflowing when spinning for long
+            if (idleCount < Integer.MAX_VALUE) {
+                ++idleCount;
+            }
+            if (!idleStrategy.idle(idleCount)) {
+                hasEnded = true;
+                return Optional.empty();
+            }
+            elem = queue.poll();
+        }
+        if (Objects.equals(elem, endMarker)) {
+            hasEnded = true;
+            return Optional.empty();
+        }
+        return Optional.of(elem);
+    }
+
+    @Override
+    protected Stream<T> copy() {
+        return new StreamOfQueue<>(queue, idleStrategy, endMarker);
+    }
+
+    @Override
+    protected void close() {
+        hasEnded = true;
+    }
+}
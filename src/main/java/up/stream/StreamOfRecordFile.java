@@ -0,0 +1,85 @@
+package up.stream;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+final class StreamOfRecordFile extends Stream<ByteRecord> {
+    private static final int REGION_SIZE = 1 << 26;
+
+    private final Path path;
+    private final int recordSize;
+    private final ByteOrder order;
+    private final long recordsPerRegion;
+    private final ByteRecord record;
+    private MappedByteBuffer region;
+    private long regionIndex;
+    private long count;
+    private long currIndex;
+
+    StreamOfRecordFile(final Path path, final int recordSize, final ByteOrder order) {
+        this.path = path;
+        this.recordSize = recordSize;
+        this.order = order;
+        // Regions hold whole records so that no record is split between two regions
+        recordsPerRegion = Math.max(1, REGION_SIZE / recordSize);
+        record = new ByteRecord(null);
+        region = null;
+        regionIndex = -1;
+        count = -1;
+        currIndex = 0;
+    }
+
+    @Override
+    protected Optional<ByteRecord> next() {
+        if (count < 0) {
+            map(0);
+        }
+        if (currIndex >= count) {
+            return Optional.empty();
+        }
+
+        final long idx = currIndex / recordsPerRegion;
+        if (idx != regionIndex) {
+            map(idx);
+        }
+        final int offset = (int) ((currIndex % recordsPerRegion) * recordSize);
+        return Optional.of(record.moveTo(region, offset, recordSize, currIndex++));
+    }
+
+    @Override
+    protected long skip(final long count) {
+        if (this.count < 0) {
+            map(0);
+        }
+        // The region containing the next record is mapped only when it is requested
+        final long skipped = Math.max(0, Math.min(count, this.count - currIndex));
+        currIndex += skipped;
+        return skipped;
+    }
+
+    @Override
+    protected Stream<ByteRecord> copy() {
+        return new StreamOfRecordFile(path, recordSize, order);
+    }
+
+    private void map(final long idx) {
+        // The mapping stays valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            count = channel.size() / recordSize;
+            final long firstRecord = idx * recordsPerRegion;
+            final long len = Math.max(0, Math.min(recordsPerRegion, count - firstRecord)) * recordSize;
+            region = channel.map(FileChannel.MapMode.READ_ONLY, firstRecord * recordSize, len);
+            region.order(order);
+            PipelineEvents.bufferAllocation(this, len, true);
+            regionIndex = idx;
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package up.stream;
+
+import java.nio.ByteBuffer;
+import java.util.Optional;
+
+final class StreamOfRecords extends Stream<ByteRecord> {
+    private final ByteBuffer buffer;
+    private final int recordSize;
+    private final int start;
+    private final long count;
+    private final ByteRecord record;
+    private long currIndex;
+
+    StreamOfRecords(final ByteBuffer buffer, final int recordSize) {
+        this(buffer, recordSize, buffer.position(), buffer.remaining() / recordSize);
+    }
+
+    private StreamOfRecords(final ByteBuffer buffer, final int recordSize, final int start, final long count) {
+        this.buffer = buffer;
+        this.recordSize = recordSize;
+        this.start = start;
+        this.count = count;
+        record = new ByteRecord(buffer);
+        currIndex = 0;
+    }
+
+    @Override
+    protected Optional<ByteRecord> next() {
+        if (currIndex >= count) {
+            return Optional.empty();
+        }
+        final int offset = start + (int) (currIndex * recordSize);
+        return Optional.of(record.moveTo(buffer, offset, recordSize, currIndex++));
+    }
+
+    @Override
+    protected long skip(final long count) {
+        final long skipped = Math.max(0, Math.min(count, this.count - currIndex));
+        currIndex += skipped;
+        return skipped;
+    }
+
+    @Override
+    protected Stream<ByteRecord> copy() {
+        return new StreamOfRecords(buffer, recordSize, start, count);
+    }
+
+    @Override
+    long exactSize() {
+        return count - currIndex;
+    }
+}
@@ -0,0 +1,151 @@
+package up.stream;
+
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+
+final class StreamPrefetch<T> extends Stream<T> {
+    private static final Object END = new Object();
+
+    private final Stream<T> upstream;
+    private final int capacity;
+    private final Executor executor;
+    private final BlockingQueue<Object> queue;
+    private volatile boolean isCancelled;
+    private boolean hasStarted;
+    private boolean hasEnded;
+
+    StreamPrefetch(final Stream<T> upstream, final int capacity, final Executor executor) {
+        this.upstream = upstream;
+        this.capacity = capacity;
+        this.executor = executor;
+        queue = new ArrayBlockingQueue<>(capacity);
+        isCancelled = false;
+        hasStarted = false;
+        hasEnded = false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected Optional<T> next() {
+        if (hasEnded) {
+            return Optional.empty();
+        }
+        if (!hasStarted) {
+            start();
+        }
+
+        final Object item;
+        try {
+            item = queue.take();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new CancellationException("Interrupted while waiting for the next element");
+        }
+
+        if (item == END) {
+            hasEnded = true;
+            return Optional.empty();
+        }
+        if (item instanceof Failure) {
+            hasEnded = true;
+            final Throwable cause = ((Failure) item).cause;
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+        return Optional.of((T) item);
+    }
+
+    @Override
+    protected Stream<T> copy() {
+        return new StreamPrefetch<>(upstream.copy(), capacity, executor);
+    }
+
+    @Override
+    protected void close() {
+        hasEnded = true;
+        if (!hasStarted) {
+            // No producer will run to close upstream
+            hasStarted = true;
+            isCancelled = true;
+            upstream.close();
+            return;
+        }
+        if (!isCancelled) {
+            isCancelled = true;
+            // Unblocks the producer, which sees the cancellation before
+            // the queue can fill up again
+            queue.clear();
+        }
+    }
+
+    private void start() {
+        hasStarted = true;
+        if (executor == null) {
+            final Thread thread = new Thread(this::produce, "UpStream-prefetch");
+            thread.setDaemon(true);
+            thread.start();
+        } else {
+            executor.execute(this::produce);
+        }
+    }
+
+    private void produce() {
+        // Upstream is only accessed by the producer from here on
+        Object last = END;
+        try {
+            // The cancellation is checked before the next element is computed
+            while (!isCancelled) {
+                final Optional<T> elem = upstream.next();
+                if (!elem.isPresent()) {
+                    break;
+                }
+                queue.put(elem.get());
+            }
+        } catch (final InterruptedException e) {
+            last = new Failure(new CancellationException("Interrupted while prefetching the next element"));
+        } catch (final Throwable t) {
+            last = new Failure(t);
+        }
+        try {
+            upstream.close();
+        } catch (final Throwable t) {
+            if (last == END) {
+                last = new Failure(t);
+            }
+        }
+        deliver(last);
+    }
+
+    private void deliver(final Object last) {
+        // The consumer either takes the last item or cancels, which empties the queue
+        boolean wasInterrupted = Thread.interrupted();
+        while (!isCancelled) {
+            try {
+                queue.put(last);
+                break;
+            } catch (final InterruptedException e) {
+                wasInterrupted = true;
+            }
+        }
+        if (wasInterrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Failure {
+        private final Throwable cause;
+
+        private Failure(final Throwable cause) {
+            this.cause = cause;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package up.stream;
+
+import java.util.Optional;
+
+final class StreamProfiled<T> extends Stream<T> {
+    private final Stream<T> stage;
+    private final Profiler.Counters counters;
+
+    StreamProfiled(final Stream<T> stage, final Profiler.Counters counters) {
+        this.stage = stage;
+        this.counters = counters;
+    }
+
+    @Override
+    protected Optional<T> next() {
+        final long start = System.nanoTime();
+        final Optional<T> elem = stage.next();
+        counters.nanos += System.nanoTime() - start;
+        if (elem.isPresent()) {
+            ++counters.elements;
+        }
+        return elem;
+    }
+
+    @Override
+    protected long skip(final long count) {
+        final long start = System.nanoTime();
+        final long skipped = stage.skip(count);
+        counters.nanos += System.nanoTime() - start;
+        counters.elements += skipped;
+        return skipped;
+    }
+
+    @Override
+    protected Stream<T> copy() {
+        // Copies accumulate into the same counters
+        return new StreamProfiled<>(stage.copy(), counters);
+    }
+
+    @Override
+    protected void close() {
+        stage.close();
+        counters.onClose();
+    }
+
+    @Override
+    long exactSize() {
+        return stage.exactSize();
+    }
+
+    @Override
+    Profiler.Counters counters() {
+        return counters;
+    }
+
+    Stream<T> stage() {
+        return stage;
+    }
+}
@@ -3,7 +3,7 @@ package up.stream;
 import java.util.Optional;
 import java.util.function.Predicate;
 
-final class StreamReject<T> extends Stream<T> {
+final class StreamReject<T> extends Stream<T> implements Fusible {
     private final Stream<T> upstream;
     private final Predicate<? super T> predicate;
 
@@ -26,4 +26,19 @@ final class StreamReject<T> extends Stream<T> {
     protected Stream<T> copy() {
         return new StreamReject<>(upstream.copy(), predicate);
     }
+
+    @Override
+    protected void close() {
+        upstream.close();
+    }
+
+    @Override
+    public Stream<?> upstream() {
+        return upstream;
+    }
+
+    @Override
+    public Pipeline.Op op() {
+        return new Pipeline.Op(Pipeline.Op.REJECT, predicate, 0);
+    }
 }
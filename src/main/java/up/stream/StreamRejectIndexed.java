@@ -0,0 +1,37 @@
+package up.stream;
+
+import java.util.Optional;
+
+import up.stream.function.LongObjPredicate;
+
+final class StreamRejectIndexed<T> extends Stream<T> {
+    private final Stream<T> upstream;
+    private final LongObjPredicate<? super T> predicate;
+    private long currIndex;
+
+    StreamRejectIndexed(final Stream<T> upstream, final LongObjPredicate<? super T> predicate) {
+        this.upstream = upstream;
+        this.predicate = predicate;
+        currIndex = 0;
+    }
+
+    @Override
+    protected Optional<T> next() {
+        Optional<T> elem = upstream.next();
+        // Prevent Objects#requireNonNull check in Optional#filter
+        while (elem.isPresent() && predicate.test(currIndex++, elem.get())) {
+            elem = upstream.next();
+        }
+        return elem;
+    }
+
+    @Override
+    protected Stream<T> copy() {
+        return new StreamRejectIndexed<>(upstream.copy(), predicate);
+    }
+
+    @Override
+    protected void close() {
+        upstream.close();
+    }
+}
@@ -19,9 +19,11 @@ final class StreamRepeat<T> extends Stream<T> {
     protected Optional<T> next() {
         Optional<T> elem = currStream.next();
         if (!elem.isPresent() && currCycle < times) {
+            currStream.close();
             currStream = upstream.copy();
             elem = currStream.next();
             ++currCycle;
+            PipelineEvents.recopy(this, currCycle);
         }
         return elem;
     }
@@ -31,4 +33,9 @@ final class StreamRepeat<T> extends Stream<T> {
         // upstream is not modified
         return new StreamRepeat<>(upstream, times);
     }
+
+    @Override
+    protected void close() {
+        currStream.close();
+    }
 }
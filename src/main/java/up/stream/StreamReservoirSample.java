@@ -0,0 +1,93 @@
+package up.stream;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+final class StreamReservoirSample<T> extends Stream<T> {
+    private final Stream<T> upstream;
+    private final int size;
+    private final Random random;
+    private List<T> reservoir;
+    private int currIndex;
+
+    StreamReservoirSample(final Stream<T> upstream, final int size, final Random random) {
+        this.upstream = upstream;
+        this.size = size;
+        this.random = random;
+        reservoir = null;
+        currIndex = 0;
+    }
+
+    @Override
+    protected Optional<T> next() {
+        if (reservoir == null) {
+            fill();
+        }
+        return currIndex < reservoir.size() ? Optional.of(reservoir.get(currIndex++)) : Optional.empty();
+    }
+
+    @Override
+    protected long skip(final long count) {
+        if (reservoir == null) {
+            fill();
+        }
+        final int skipped = (int) Math.min(count, reservoir.size() - currIndex);
+        currIndex += skipped;
+        return skipped;
+    }
+
+    @Override
+    protected Stream<T> copy() {
+        return new StreamReservoirSample<>(upstream.copy(), size, random);
+    }
+
+    @Override
+    protected void close() {
+        upstream.close();
+    }
+
+    @Override
+    long exactSize() {
+        if (reservoir != null) {
+            return reservoir.size() - currIndex;
+        }
+        final long upstreamSize = upstream.exactSize();
+        return upstreamSize < 0 ? -1 : Math.min(upstreamSize, size);
+    }
+
+    // Algorithm L: the gaps between replaced elements are geometrically
+    // distributed, so the elements in the gaps are skipped without being tested
+    private void fill() {
+        reservoir = new ArrayList<>(Math.min(size, Stream.bufferCapacity(upstream.exactSize())));
+        for (Optional<T> curr = upstream.next(); curr.isPresent(); curr = upstream.next()) {
+            reservoir.add(curr.get());
+            if (reservoir.size() == size) {
+                break;
+            }
+        }
+        if (reservoir.size() == size) {
+            double weight = Math.exp(Math.log(uniform()) / size);
+            while (true) {
+                final double gap = Math.floor(Math.log(uniform()) / Math.log(1 - weight));
+                // A gap too long to represent ends the sampling like a gap past the end
+                if (!(gap < Long.MAX_VALUE) || upstream.skip((long) gap) < gap) {
+                    break;
+                }
+                final Optional<T> elem = upstream.next();
+                if (!elem.isPresent()) {
+                    break;
+                }
+                reservoir.set(random.nextInt(size), elem.get());
+                weight *= Math.exp(Math.log(uniform()) / size);
+            }
+        }
+        upstream.close();
+    }
+
+    // In (0, 1] so that its logarithm is finite
+    private double uniform() {
+        return 1 - random.nextDouble();
+    }
+}
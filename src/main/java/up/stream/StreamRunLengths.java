@@ -0,0 +1,46 @@
+package up.stream;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import up.stream.util.Pair;
+
+final class StreamRunLengths<T> extends BiStream<T, Long> {
+    private final Stream<T> upstream;
+    // The first element of the next run, pulled while counting the current one
+    private Optional<T> pending;
+    private boolean hasStarted;
+
+    StreamRunLengths(final Stream<T> upstream) {
+        this.upstream = upstream;
+        pending = Optional.empty();
+        hasStarted = false;
+    }
+
+    @Override
+    protected Optional<Pair<T, Long>> next() {
+        if (!hasStarted) {
+            hasStarted = true;
+            pending = upstream.next();
+        }
+        if (!pending.isPresent()) {
+            return Optional.empty();
+        }
+        final T value = pending.get();
+        long length = 1;
+        for (pending = upstream.next(); pending.isPresent() && Objects.equals(pending.get(), value); pending = upstream.next()) {
+            ++length;
+        }
+        return Optional.of(new Pair<>(value, length));
+    }
+
+    @Override
+    protected BiStream<T, Long> copy() {
+        return new StreamRunLengths<>(upstream.copy());
+    }
+
+    @Override
+    protected void close() {
+        upstream.close();
+    }
+}
@@ -0,0 +1,42 @@
+package up.stream;
+
+import java.util.Optional;
+import java.util.function.ToLongFunction;
+
+final class StreamRunningSum<T> extends Stream<Long> {
+    private final Stream<T> upstream;
+    private final ToLongFunction<? super T> mapper;
+    // Kept unboxed, only the emitted sums are boxed
+    private long sum;
+
+    StreamRunningSum(final Stream<T> upstream, final ToLongFunction<? super T> mapper) {
+        this.upstream = upstream;
+        this.mapper = mapper;
+        sum = 0;
+    }
+
+    @Override
+    protected Optional<Long> next() {
+        final Optional<T> elem = upstream.next();
+        if (!elem.isPresent()) {
+            return Optional.empty();
+        }
+        sum += mapper.applyAsLong(elem.get());
+        return Optional.of(sum);
+    }
+
+    @Override
+    protected Stream<Long> copy() {
+        return new StreamRunningSum<>(upstream.copy(), mapper);
+    }
+
+    @Override
+    protected void close() {
+        upstream.close();
+    }
+
+    @Override
+    long exactSize() {
+        return upstream.exactSize();
+    }
+}
@@ -0,0 +1,52 @@
+package up.stream;
+
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+final class StreamSample<T> extends Stream<T> {
+    private final Stream<T> upstream;
+    private final long interval;
+    private final LongSupplier clock;
+    private T latest;
+    private long windowStart;
+
+    StreamSample(final Stream<T> upstream, final long interval, final LongSupplier clock) {
+        this.upstream = upstream;
+        this.interval = interval;
+        this.clock = clock;
+        latest = null;
+        windowStart = 0;
+    }
+
+    @Override
+    protected Optional<T> next() {
+        for (Optional<T> elem = upstream.next(); elem.isPresent(); elem = upstream.next()) {
+            final long now = clock.getAsLong();
+            if (latest == null) {
+                windowStart = now;
+            } else if (now - windowStart >= interval) {
+                // The new element belongs to the next window
+                final T sampled = latest;
+                latest = elem.get();
+                windowStart = now;
+                return Optional.of(sampled);
+            }
+            latest = elem.get();
+        }
+
+        // Flush the element of the last unfinished window
+        final Optional<T> res = Optional.ofNullable(latest);
+        latest = null;
+        return res;
+    }
+
+    @Override
+    protected Stream<T> copy() {
+        return new StreamSample<>(upstream.copy(), interval, clock);
+    }
+
+    @Override
+    protected void close() {
+        upstream.close();
+    }
+}
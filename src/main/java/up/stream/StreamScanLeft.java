@@ -0,0 +1,56 @@
+package up.stream;
+
+import java.util.Optional;
+import java.util.function.BiFunction;
+
+final class StreamScanLeft<T, R> extends Stream<R> {
+    private final Stream<T> upstream;
+    private final R seed;
+    private final boolean hasSeed;
+    private final BiFunction<? super R, ? super T, ? extends R> accumulator;
+    private R acc;
+    private boolean hasStarted;
+
+    StreamScanLeft(final Stream<T> upstream, final R seed, final boolean hasSeed, final BiFunction<? super R, ? super T, ? extends R> accumulator) {
+        this.upstream = upstream;
+        this.seed = seed;
+        this.hasSeed = hasSeed;
+        this.accumulator = accumulator;
+        acc = null;
+        hasStarted = false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected Optional<R> next() {
+        if (!hasStarted) {
+            hasStarted = true;
+            if (hasSeed) {
+                acc = seed;
+                return Optional.of(seed);
+            }
+            // Without a seed the first element is the first result
+            final Optional<T> first = upstream.next();
+            if (first.isPresent()) {
+                acc = (R) first.get();
+            }
+            return (Optional<R>) first;
+        }
+        final Optional<T> elem = upstream.next();
+        if (!elem.isPresent()) {
+            return Optional.empty();
+        }
+        acc = accumulator.apply(acc, elem.get());
+        return Optional.ofNullable(acc);
+    }
+
+    @Override
+    protected Stream<R> copy() {
+        return new StreamScanLeft<>(upstream.copy(), seed, hasSeed, accumulator);
+    }
+
+    @Override
+    protected void close() {
+        upstream.close();
+    }
+}
@@ -0,0 +1,85 @@
+package up.stream;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiFunction;
+
+final class StreamScanRight<T, R> extends Stream<R> {
+    private final Stream<T> upstream;
+    private final R seed;
+    private final boolean hasSeed;
+    private final BiFunction<? super T, ? super R, ? extends R> accumulator;
+    // The results replace the buffered elements in place
+    private List<Object> buffer;
+    private int currIndex;
+
+    StreamScanRight(final Stream<T> upstream, final R seed, final boolean hasSeed, final BiFunction<? super T, ? super R, ? extends R> accumulator) {
+        this.upstream = upstream;
+        this.seed = seed;
+        this.hasSeed = hasSeed;
+        this.accumulator = accumulator;
+        buffer = null;
+        currIndex = 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected Optional<R> next() {
+        if (buffer == null) {
+            scan();
+        }
+        return currIndex < buffer.size() ? Optional.ofNullable((R) buffer.get(currIndex++)) : Optional.empty();
+    }
+
+    @Override
+    protected long skip(final long count) {
+        if (buffer == null) {
+            scan();
+        }
+        final int skipped = (int) Math.min(count, buffer.size() - currIndex);
+        currIndex += skipped;
+        return skipped;
+    }
+
+    @Override
+    protected Stream<R> copy() {
+        return new StreamScanRight<>(upstream.copy(), seed, hasSeed, accumulator);
+    }
+
+    @Override
+    protected void close() {
+        upstream.close();
+    }
+
+    @Override
+    long exactSize() {
+        if (buffer != null) {
+            return buffer.size() - currIndex;
+        }
+        final long size = upstream.exactSize();
+        return size >= 0 && hasSeed ? size + 1 : size;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void scan() {
+        buffer = new ArrayList<>(Stream.bufferCapacity(exactSize()));
+        for (Optional<T> curr = upstream.next(); curr.isPresent(); curr = upstream.next()) {
+            buffer.add(curr.get());
+        }
+        // Every element has been pulled
+        upstream.close();
+        if (hasSeed) {
+            buffer.add(seed);
+        }
+        if (buffer.isEmpty()) {
+            return;
+        }
+        // Folds from the back in a loop so that long streams don't overflow the call stack
+        R acc = (R) buffer.get(buffer.size() - 1);
+        for (int i = buffer.size() - 2; i >= 0; --i) {
+            acc = accumulator.apply((T) buffer.get(i), acc);
+            buffer.set(i, acc);
+        }
+    }
+}
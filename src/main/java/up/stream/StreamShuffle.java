@@ -0,0 +1,66 @@
+package up.stream;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Random;
+
+final class StreamShuffle<T> extends Stream<T> {
+    private final Stream<T> upstream;
+    private final Random random;
+    private Object[] buffer;
+    private int len;
+    private int currIndex;
+
+    StreamShuffle(final Stream<T> upstream, final Random random) {
+        this.upstream = upstream;
+        this.random = random;
+        buffer = null;
+        len = 0;
+        currIndex = 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected Optional<T> next() {
+        if (buffer == null) {
+            fill();
+        }
+        if (currIndex == len) {
+            return Optional.empty();
+        }
+        // One step of Fisher-Yates per element, so taking
+        // a few elements doesn't shuffle the whole buffer
+        final int swapIndex = currIndex + random.nextInt(len - currIndex);
+        final Object elem = buffer[swapIndex];
+        buffer[swapIndex] = buffer[currIndex];
+        buffer[currIndex++] = null;
+        return Optional.of((T) elem);
+    }
+
+    @Override
+    protected Stream<T> copy() {
+        return new StreamShuffle<>(upstream.copy(), random);
+    }
+
+    @Override
+    protected void close() {
+        upstream.close();
+    }
+
+    @Override
+    long exactSize() {
+        return buffer == null ? upstream.exactSize() : len - currIndex;
+    }
+
+    private void fill() {
+        final long size = upstream.exactSize();
+        buffer = new Object[Stream.bufferCapacity(size)];
+        for (Optional<T> curr = upstream.next(); curr.isPresent(); curr = upstream.next()) {
+            if (len == buffer.length) {
+                buffer = Arrays.copyOf(buffer, Stream.grownCapacity(len));
+            }
+            buffer[len++] = curr.get();
+        }
+        upstream.close();
+    }
+}
@@ -0,0 +1,82 @@
+package up.stream;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+final class StreamShuffleIndexed<T> extends Stream<T> {
+    // The swapped indices are kept in a map until 1/16 of the elements have been taken
+    private static final int MAP_SHIFT = 4;
+
+    private final IntFunction<T> source;
+    private final int from;
+    private final int to;
+    private final Random random;
+    // Fisher-Yates over the indices. The map stores only the swapped ones, which
+    // is cheap when a few elements are taken from many. The array stores the
+    // indices from arrayStart on, which is cheaper when many are taken
+    private Map<Integer, Integer> swapped;
+    private int[] indices;
+    private int arrayStart;
+    private int currIndex;
+
+    StreamShuffleIndexed(final IntFunction<T> source, final int from, final int to, final Random random) {
+        this.source = source;
+        this.from = from;
+        this.to = to;
+        this.random = random;
+        swapped = new HashMap<>();
+        indices = null;
+        arrayStart = from;
+        currIndex = from;
+    }
+
+    @Override
+    protected Optional<T> next() {
+        if (currIndex == to) {
+            return Optional.empty();
+        }
+        if (indices == null && currIndex - from > (to - from) >>> MAP_SHIFT) {
+            fillIndices();
+        }
+        final int swapIndex = currIndex + random.nextInt(to - currIndex);
+        final int index;
+        if (indices != null) {
+            index = indices[swapIndex - arrayStart];
+            indices[swapIndex - arrayStart] = indices[currIndex - arrayStart];
+        } else {
+            index = swapped.getOrDefault(swapIndex, swapIndex);
+            if (swapIndex != currIndex) {
+                swapped.put(swapIndex, swapped.getOrDefault(currIndex, currIndex));
+            }
+            // The current index is never drawn again
+            swapped.remove(currIndex);
+        }
+        ++currIndex;
+        return Optional.of(source.apply(index));
+    }
+
+    @Override
+    protected Stream<T> copy() {
+        return new StreamShuffleIndexed<>(source, from, to, random);
+    }
+
+    @Override
+    long exactSize() {
+        return to - currIndex;
+    }
+
+    private void fillIndices() {
+        arrayStart = currIndex;
+        indices = new int[to - arrayStart];
+        for (int i = 0; i < indices.length; ++i) {
+            indices[i] = arrayStart + i;
+        }
+        for (final Map.Entry<Integer, Integer> entry : swapped.entrySet()) {
+            indices[entry.getKey() - arrayStart] = entry.getValue();
+        }
+        swapped = null;
+    }
+}
@@ -2,7 +2,7 @@ package up.stream;
 
 import java.util.Optional;
 
-final class StreamTake<T> extends Stream<T> {
+final class StreamTake<T> extends Stream<T> implements Fusible {
     private final Stream<T> upstream;
     private final long elemsToTake;
     private long elemsTaken;
@@ -18,12 +18,45 @@ final class StreamTake<T> extends Stream<T> {
         if (elemsTaken >= elemsToTake) {
             return Optional.empty();
         }
-        ++elemsTaken;
+        if (++elemsTaken == elemsToTake) {
+            // Release upstream resources as soon as the last element is pulled
+            final Optional<T> elem = upstream.next();
+            upstream.close();
+            return elem;
+        }
         return upstream.next();
     }
 
+    @Override
+    protected long skip(final long count) {
+        final long skipped = upstream.skip(Math.min(count, elemsToTake - elemsTaken));
+        elemsTaken += skipped;
+        return skipped;
+    }
+
     @Override
     protected Stream<T> copy() {
         return new StreamTake<>(upstream.copy(), elemsToTake);
     }
+
+    @Override
+    protected void close() {
+        upstream.close();
+    }
+
+    @Override
+    long exactSize() {
+        final long size = upstream.exactSize();
+        return size < 0 ? -1 : Math.min(size, Math.max(0, elemsToTake - elemsTaken));
+    }
+
+    @Override
+    public Stream<?> upstream() {
+        return upstream;
+    }
+
+    @Override
+    public Pipeline.Op op() {
+        return new Pipeline.Op(Pipeline.Op.TAKE, null, Math.max(elemsToTake, 0));
+    }
 }
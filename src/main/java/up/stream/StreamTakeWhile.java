@@ -3,7 +3,7 @@ package up.stream;
 import java.util.Optional;
 import java.util.function.Predicate;
 
-final class StreamTakeWhile<T> extends Stream<T> {
+final class StreamTakeWhile<T> extends Stream<T> implements Fusible {
     private final Stream<T> upstream;
     private final Predicate<? super T> predicate;
     private boolean isTaking;
@@ -26,6 +26,7 @@ final class StreamTakeWhile<T> extends Stream<T> {
             return elem;
         }
         isTaking = false;
+        upstream.close();
         return Optional.empty();
     }
 
@@ -33,4 +34,19 @@ final class StreamTakeWhile<T> extends Stream<T> {
     protected Stream<T> copy() {
         return new StreamTakeWhile<>(upstream.copy(), predicate);
     }
+
+    @Override
+    protected void close() {
+        upstream.close();
+    }
+
+    @Override
+    public Stream<?> upstream() {
+        return upstream;
+    }
+
+    @Override
+    public Pipeline.Op op() {
+        return new Pipeline.Op(Pipeline.Op.TAKE_WHILE, predicate, 0);
+    }
 }
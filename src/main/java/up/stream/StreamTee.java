@@ -0,0 +1,212 @@
+package up.stream;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+
+final class StreamTee<T> extends Stream<T> {
+    private final Source<T> source;
+    private final int branch;
+
+    StreamTee(final Source<T> source, final int branch) {
+        this.source = source;
+        this.branch = branch;
+    }
+
+    @Override
+    protected Optional<T> next() {
+        return source.next(branch);
+    }
+
+    @Override
+    protected Stream<T> copy() {
+        // A branch has the same elements as the stream it reads
+        return source.upstream.copy();
+    }
+
+    @Override
+    protected void close() {
+        source.close(branch);
+    }
+
+    @Override
+    long exactSize() {
+        return source.exactSize(branch);
+    }
+
+    // The elements between the slowest and the fastest branch are kept in a ring
+    static final class Source<T> {
+        private final Stream<T> upstream;
+        private final int bufferSize;
+        private final OverflowPolicy policy;
+        // The index of the next element of each branch, -1 once it is closed
+        private final long[] positions;
+        private Object[] ring;
+        private int head;
+        private int size;
+        // The index of the element at the head of the ring
+        private long first;
+        private int openBranches;
+        private boolean hasEnded;
+        private boolean hasClosedUpstream;
+        // Upstream is pulled outside the lock by one branch at a time,
+        // so the other branches can read buffered elements meanwhile
+        private boolean isPulling;
+
+        Source(final Stream<T> upstream, final int branches, final int bufferSize, final OverflowPolicy policy) {
+            this.upstream = upstream;
+            this.bufferSize = bufferSize;
+            this.policy = policy;
+            positions = new long[branches];
+            ring = new Object[Integer.highestOneBit(Math.min(bufferSize, 16) * 2 - 1)];
+            head = 0;
+            size = 0;
+            first = 0;
+            openBranches = branches;
+            hasEnded = false;
+            hasClosedUpstream = false;
+            isPulling = false;
+        }
+
+        Optional<T> next(final int branch) {
+            final long position;
+            synchronized (this) {
+                while (true) {
+                    if (positions[branch] < 0) {
+                        return Optional.empty();
+                    }
+                    if (positions[branch] < first + size) {
+                        return take(branch);
+                    }
+                    if (hasEnded) {
+                        return Optional.empty();
+                    }
+                    if (isPulling) {
+                        // The element this branch needs is being pulled
+                        await();
+                    } else if (size < bufferSize || openBranches == 1 || policy == OverflowPolicy.GROW) {
+                        break;
+                    } else if (policy == OverflowPolicy.FAIL) {
+                        throw new IllegalStateException("Branches drifted apart by more than " + bufferSize + " elements");
+                    } else {
+                        await();
+                    }
+                }
+                position = positions[branch];
+                isPulling = true;
+            }
+            final Optional<T> elem;
+            try {
+                elem = upstream.next();
+            } catch (final RuntimeException | Error e) {
+                synchronized (this) {
+                    isPulling = false;
+                    notifyAll();
+                }
+                throw e;
+            }
+            synchronized (this) {
+                isPulling = false;
+                notifyAll();
+                if (!elem.isPresent()) {
+                    hasEnded = true;
+                    // Release upstream resources as soon as the last element is pulled
+                    closeUpstream();
+                    return Optional.empty();
+                }
+                if (openBranches == 0) {
+                    return Optional.empty();
+                }
+                if (size == ring.length) {
+                    grow();
+                }
+                ring[(head + size++) & (ring.length - 1)] = elem.get();
+                return positions[branch] == position ? take(branch) : Optional.empty();
+            }
+        }
+
+        synchronized void close(final int branch) {
+            if (positions[branch] < 0) {
+                return;
+            }
+            positions[branch] = -1;
+            if (--openBranches == 0) {
+                size = 0;
+                ring = new Object[0];
+                closeUpstream();
+            } else {
+                trim();
+            }
+            notifyAll();
+        }
+
+        synchronized long exactSize(final int branch) {
+            final long position = positions[branch];
+            if (position < 0) {
+                return 0;
+            }
+            final long buffered = first + size - position;
+            if (hasEnded) {
+                return buffered;
+            }
+            if (isPulling) {
+                // Upstream can't be asked while another branch pulls from it
+                return -1;
+            }
+            final long upstreamSize = upstream.exactSize();
+            return upstreamSize < 0 ? -1 : upstreamSize + buffered;
+        }
+
+        @SuppressWarnings("unchecked")
+        private Optional<T> take(final int branch) {
+            final long position = positions[branch];
+            final T elem = (T) ring[(int) (head + position - first) & (ring.length - 1)];
+            positions[branch] = position + 1;
+            if (position == first) {
+                trim();
+            }
+            return Optional.of(elem);
+        }
+
+        private void closeUpstream() {
+            if (!hasClosedUpstream) {
+                hasClosedUpstream = true;
+                upstream.close();
+            }
+        }
+
+        private void await() {
+            try {
+                wait();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while waiting for the other branches");
+            }
+        }
+
+        // Drops the elements all open branches have passed
+        private void trim() {
+            long slowest = first + size;
+            for (final long position : positions) {
+                if (position >= 0 && position < slowest) {
+                    slowest = position;
+                }
+            }
+            while (first < slowest) {
+                ring[head] = null;
+                head = (head + 1) & (ring.length - 1);
+                --size;
+                ++first;
+            }
+            notifyAll();
+        }
+
+        private void grow() {
+            final Object[] res = Arrays.copyOf(ring, ring.length * 2);
+            // The wrapped part moves after the end of the old ring
+            System.arraycopy(ring, 0, res, ring.length, head);
+            Arrays.fill(res, 0, head, null);
+            ring = res;
+        }
+    }
+}
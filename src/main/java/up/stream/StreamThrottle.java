@@ -0,0 +1,43 @@
+package up.stream;
+
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+final class StreamThrottle<T> extends Stream<T> {
+    private final Stream<T> upstream;
+    private final long interval;
+    private final LongSupplier clock;
+    private boolean hasEmitted;
+    private long lastEmitted;
+
+    StreamThrottle(final Stream<T> upstream, final long interval, final LongSupplier clock) {
+        this.upstream = upstream;
+        this.interval = interval;
+        this.clock = clock;
+        hasEmitted = false;
+        lastEmitted = 0;
+    }
+
+    @Override
+    protected Optional<T> next() {
+        for (Optional<T> elem = upstream.next(); elem.isPresent(); elem = upstream.next()) {
+            final long now = clock.getAsLong();
+            if (!hasEmitted || now - lastEmitted >= interval) {
+                hasEmitted = true;
+                lastEmitted = now;
+                return elem;
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    protected Stream<T> copy() {
+        return new StreamThrottle<>(upstream.copy(), interval, clock);
+    }
+
+    @Override
+    protected void close() {
+        upstream.close();
+    }
+}
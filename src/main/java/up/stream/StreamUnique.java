@@ -4,13 +4,17 @@ import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
 
-final class StreamUnique<T> extends Stream<T> {
+final class StreamUnique<T> extends Stream<T> implements Fusible {
+    private static final int FIRST_GROWTH_EVENT = 1 << 16;
+
     private final Stream<T> upstream;
     private final Set<T> uniques;
+    private int nextGrowthEvent;
 
     StreamUnique(final Stream<T> upstream) {
         this.upstream = upstream;
         uniques = new HashSet<>();
+        nextGrowthEvent = FIRST_GROWTH_EVENT;
     }
 
     @Override
@@ -20,7 +24,13 @@ final class StreamUnique<T> extends Stream<T> {
         while (curr.isPresent() && uniques.contains(curr.get())) {
             curr = upstream.next();
         }
-        curr.ifPresent(uniques::add);
+        if (curr.isPresent()) {
+            uniques.add(curr.get());
+            if (uniques.size() == nextGrowthEvent) {
+                PipelineEvents.uniqueGrowth(this, nextGrowthEvent);
+                nextGrowthEvent <<= 1;
+            }
+        }
         return curr;
     }
 
@@ -28,4 +38,19 @@ final class StreamUnique<T> extends Stream<T> {
     protected Stream<T> copy() {
         return new StreamUnique<>(upstream.copy());
     }
+
+    @Override
+    protected void close() {
+        upstream.close();
+    }
+
+    @Override
+    public Stream<?> upstream() {
+        return upstream;
+    }
+
+    @Override
+    public Pipeline.Op op() {
+        return new Pipeline.Op(Pipeline.Op.UNIQUE, null, 0);
+    }
 }
@@ -0,0 +1,37 @@
+package up.stream;
+
+import java.util.Optional;
+
+import up.stream.util.CharSlice;
+
+final class StreamWordsOfText extends Stream<CharSlice> {
+    private final CharSequence text;
+    private int currIndex;
+
+    StreamWordsOfText(final CharSequence text) {
+        this.text = text;
+        currIndex = 0;
+    }
+
+    @Override
+    protected Optional<CharSlice> next() {
+        final int len = text.length();
+        while (currIndex < len && Character.isWhitespace(text.charAt(currIndex))) {
+            ++currIndex;
+        }
+        if (currIndex >= len) {
+            return Optional.empty();
+        }
+
+        final int start = currIndex;
+        while (currIndex < len && !Character.isWhitespace(text.charAt(currIndex))) {
+            ++currIndex;
+        }
+        return Optional.of(new CharSlice(text, start, currIndex));
+    }
+
+    @Override
+    protected Stream<CharSlice> copy() {
+        return new StreamWordsOfText(text);
+    }
+}
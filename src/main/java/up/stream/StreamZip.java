@@ -0,0 +1,116 @@
+package up.stream;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+
+import up.stream.util.Pair;
+
+final class StreamZip<T, U> extends BiStream<T, U> {
+    private final Stream<T> first;
+    private final Stream<U> second;
+
+    StreamZip(final Stream<T> first, final Stream<U> second) {
+        this.first = first;
+        this.second = second;
+    }
+
+    @Override
+    protected Optional<Pair<T, U>> next() {
+        final Optional<T> firstElem = first.next();
+        if (!firstElem.isPresent()) {
+            return Optional.empty();
+        }
+        final Optional<U> secondElem = second.next();
+        // Prevent Objects#requireNonNull check in Optional#map
+        return secondElem.isPresent() ? Optional.of(new Pair<>(firstElem.get(), secondElem.get())) : Optional.empty();
+    }
+
+    @Override
+    protected long skip(final long count) {
+        return second.skip(first.skip(count));
+    }
+
+    @Override
+    protected BiStream<T, U> copy() {
+        return new StreamZip<>(first.copy(), second.copy());
+    }
+
+    @Override
+    protected void close() {
+        first.close();
+        second.close();
+    }
+
+    @Override
+    long exactSize() {
+        return minSize(first, second);
+    }
+
+    // The operations below pass the elements on without creating pairs
+
+    @Override
+    public <R> Stream<R> map(final BiFunction<? super T, ? super U, ? extends R> mapper) {
+        return Profiler.track(this, new StreamMergeWith<>(first, second, Objects.requireNonNull(mapper)), "map");
+    }
+
+    @Override
+    public boolean allMatch(final BiPredicate<? super T, ? super U> predicate) {
+        Objects.requireNonNull(predicate);
+        return terminal("allMatch", pairs -> {
+            for (Optional<T> curr = first.next(); curr.isPresent(); curr = first.next()) {
+                final Optional<U> other = second.next();
+                if (!other.isPresent()) {
+                    break;
+                }
+                pairs.pulled();
+                if (!predicate.test(curr.get(), other.get())) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    @Override
+    public boolean anyMatch(final BiPredicate<? super T, ? super U> predicate) {
+        Objects.requireNonNull(predicate);
+        return terminal("anyMatch", pairs -> {
+            for (Optional<T> curr = first.next(); curr.isPresent(); curr = first.next()) {
+                final Optional<U> other = second.next();
+                if (!other.isPresent()) {
+                    break;
+                }
+                pairs.pulled();
+                if (predicate.test(curr.get(), other.get())) {
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+
+    @Override
+    public void forEach(final BiConsumer<? super T, ? super U> action) {
+        Objects.requireNonNull(action);
+        terminal("forEach", pairs -> {
+            for (Optional<T> curr = first.next(); curr.isPresent(); curr = first.next()) {
+                final Optional<U> other = second.next();
+                if (!other.isPresent()) {
+                    break;
+                }
+                pairs.pulled();
+                action.accept(curr.get(), other.get());
+            }
+            return null;
+        });
+    }
+
+    static long minSize(final Stream<?> first, final Stream<?> second) {
+        final long firstSize = first.exactSize();
+        final long secondSize = second.exactSize();
+        return firstSize < 0 || secondSize < 0 ? -1 : Math.min(firstSize, secondSize);
+    }
+}
@@ -0,0 +1,58 @@
+package up.stream;
+
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.LongUnaryOperator;
+import java.util.function.Supplier;
+
+// Pulls the elements of a stream for a terminal operation and counts them
+final class TerminalCursor<T> {
+    private final Supplier<Optional<T>> source;
+    private final LongUnaryOperator skipper;
+    private long count;
+
+    private TerminalCursor(final Supplier<Optional<T>> source, final LongUnaryOperator skipper) {
+        this.source = source;
+        this.skipper = skipper;
+        count = 0;
+    }
+
+    // Runs the body of a terminal operation. The stream is closed and the
+    // operation is reported when the body finishes, also if it throws
+    static <T, R> R run(
+        final Object stream,
+        final Supplier<Optional<T>> source,
+        final LongUnaryOperator skipper,
+        final Runnable closer,
+        final String operation,
+        final Function<TerminalCursor<T>, R> body
+    ) {
+        final TerminalCursor<T> cursor = new TerminalCursor<>(source, skipper);
+        final PipelineEvents.Terminal event = PipelineEvents.beginTerminal();
+        try {
+            return body.apply(cursor);
+        } finally {
+            closer.run();
+            PipelineEvents.endTerminal(event, operation, stream, cursor.count);
+        }
+    }
+
+    Optional<T> next() {
+        final Optional<T> elem = source.get();
+        if (elem.isPresent()) {
+            ++count;
+        }
+        return elem;
+    }
+
+    long skip(final long elems) {
+        final long skipped = skipper.applyAsLong(elems);
+        count += skipped;
+        return skipped;
+    }
+
+    // For operations which read the elements without pulling them through the cursor
+    void pulled() {
+        ++count;
+    }
+}
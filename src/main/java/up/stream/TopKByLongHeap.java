@@ -0,0 +1,105 @@
+package up.stream;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Like TopKByHeap, but the keys are kept unboxed in a parallel array
+final class TopKByLongHeap<T> {
+    private final int limit;
+    // 1 to keep the largest keys and -1 to keep the smallest
+    private final int sign;
+    private Object[] elems;
+    private long[] keys;
+    private int size;
+
+    TopKByLongHeap(final int limit, final int sign, final long expectedSize) {
+        this.limit = limit;
+        this.sign = sign;
+        elems = new Object[Math.min(limit, Stream.bufferCapacity(expectedSize))];
+        keys = new long[elems.length];
+        size = 0;
+    }
+
+    void offer(final T elem, final long key) {
+        if (size < limit) {
+            if (size == elems.length) {
+                elems = Arrays.copyOf(elems, Math.min(limit, Stream.grownCapacity(size)));
+                keys = Arrays.copyOf(keys, elems.length);
+            }
+            elems[size] = elem;
+            keys[size] = key;
+            siftUp(size++);
+        } else if (compare(key, keys[0]) > 0) {
+            elems[0] = elem;
+            keys[0] = key;
+            siftDown(0, size);
+        }
+    }
+
+    // Empties the heap into a list from the first to the last element by the sign
+    @SuppressWarnings("unchecked")
+    List<T> drainDescending() {
+        for (int last = size - 1; last > 0; --last) {
+            swap(0, last);
+            siftDown(0, last);
+        }
+        final List<T> res = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            res.add((T) elems[i]);
+        }
+        elems = new Object[0];
+        keys = new long[0];
+        size = 0;
+        return res;
+    }
+
+    private void siftUp(int index) {
+        final Object elem = elems[index];
+        final long key = keys[index];
+        while (index > 0) {
+            final int parent = (index - 1) >>> 1;
+            if (compare(key, keys[parent]) >= 0) {
+                break;
+            }
+            elems[index] = elems[parent];
+            keys[index] = keys[parent];
+            index = parent;
+        }
+        elems[index] = elem;
+        keys[index] = key;
+    }
+
+    private void siftDown(int index, final int end) {
+        final Object elem = elems[index];
+        final long key = keys[index];
+        final int half = end >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < end && compare(keys[child + 1], keys[child]) < 0) {
+                ++child;
+            }
+            if (compare(key, keys[child]) <= 0) {
+                break;
+            }
+            elems[index] = elems[child];
+            keys[index] = keys[child];
+            index = child;
+        }
+        elems[index] = elem;
+        keys[index] = key;
+    }
+
+    private void swap(final int first, final int second) {
+        final Object elem = elems[first];
+        elems[first] = elems[second];
+        elems[second] = elem;
+        final long key = keys[first];
+        keys[first] = keys[second];
+        keys[second] = key;
+    }
+
+    private int compare(final long first, final long second) {
+        return sign * Long.compare(first, second);
+    }
+}
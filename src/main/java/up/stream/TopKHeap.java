@@ -0,0 +1,88 @@
+package up.stream;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+// Keeps the largest elements in a binary heap with the smallest
+// of them at the root, so each element is compared to the root only
+final class TopKHeap<T> {
+    private final int limit;
+    private final Comparator<? super T> comparator;
+    private Object[] heap;
+    private int size;
+
+    TopKHeap(final int limit, final Comparator<? super T> comparator, final long expectedSize) {
+        this.limit = limit;
+        this.comparator = comparator;
+        heap = new Object[Math.min(limit, Stream.bufferCapacity(expectedSize))];
+        size = 0;
+    }
+
+    void offer(final T elem) {
+        if (size < limit) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, Math.min(limit, Stream.grownCapacity(size)));
+            }
+            heap[size] = elem;
+            siftUp(size++);
+        } else if (compare(elem, heap[0]) > 0) {
+            heap[0] = elem;
+            siftDown(0, size);
+        }
+    }
+
+    // Empties the heap into a list from the largest to the smallest element
+    @SuppressWarnings("unchecked")
+    List<T> drainDescending() {
+        for (int last = size - 1; last > 0; --last) {
+            final Object smallest = heap[0];
+            heap[0] = heap[last];
+            heap[last] = smallest;
+            siftDown(0, last);
+        }
+        final List<T> res = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            res.add((T) heap[i]);
+        }
+        heap = new Object[0];
+        size = 0;
+        return res;
+    }
+
+    private void siftUp(int index) {
+        final Object elem = heap[index];
+        while (index > 0) {
+            final int parent = (index - 1) >>> 1;
+            if (compare(elem, heap[parent]) >= 0) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = elem;
+    }
+
+    private void siftDown(int index, final int end) {
+        final Object elem = heap[index];
+        final int half = end >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < end && compare(heap[child + 1], heap[child]) < 0) {
+                ++child;
+            }
+            if (compare(elem, heap[child]) <= 0) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = elem;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(final Object first, final Object second) {
+        return comparator.compare((T) first, (T) second);
+    }
+}
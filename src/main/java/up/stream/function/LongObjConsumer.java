@@ -0,0 +1,18 @@
+package up.stream.function;
+
+/**
+ * An action which accepts a {@code long} and an
+ * object, without boxing the {@code long}.
+ *
+ * @param <T> The type of the object.
+ */
+@FunctionalInterface
+public interface LongObjConsumer<T> {
+    /**
+     * Performs this action on the arguments.
+     *
+     * @param value The {@code long} argument.
+     * @param obj The object argument.
+     */
+    void accept(long value, T obj);
+}
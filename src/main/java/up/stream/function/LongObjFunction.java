@@ -0,0 +1,20 @@
+package up.stream.function;
+
+/**
+ * A function which accepts a {@code long} and an object
+ * and produces a result, without boxing the {@code long}.
+ *
+ * @param <T> The type of the object.
+ * @param <R> The type of the result.
+ */
+@FunctionalInterface
+public interface LongObjFunction<T, R> {
+    /**
+     * Applies this function to the arguments.
+     *
+     * @param value The {@code long} argument.
+     * @param obj The object argument.
+     * @return The result.
+     */
+    R apply(long value, T obj);
+}
@@ -0,0 +1,29 @@
+package up.stream.function;
+
+/**
+ * A predicate which accepts a {@code long} and an
+ * object, without boxing the {@code long}.
+ *
+ * @param <T> The type of the object.
+ */
+@FunctionalInterface
+public interface LongObjPredicate<T> {
+    /**
+     * Tests the arguments against this predicate.
+     *
+     * @param value The {@code long} argument.
+     * @param obj The object argument.
+     * @return Whether the arguments pass the predicate.
+     */
+    boolean test(long value, T obj);
+
+    /**
+     * Returns a predicate which is the
+     * negation of this predicate.
+     *
+     * @return The negated predicate.
+     */
+    default LongObjPredicate<T> negate() {
+        return (value, obj) -> !test(value, obj);
+    }
+}
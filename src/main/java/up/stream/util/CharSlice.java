@@ -0,0 +1,118 @@
+package up.stream.util;
+
+import java.util.Objects;
+
+/**
+ * A view of a range of characters in a {@link CharSequence}.
+ *
+ * <p>No characters are copied when a slice is created.
+ * If the underlying sequence is mutable, changes to it
+ * are visible through the slice.</p>
+ *
+ * <p>Two slices are equal if they contain the same characters.
+ * A slice is never equal to a {@link String}, even if it contains
+ * the same characters. {@link #toString()} should be used for
+ * comparing with strings.</p>
+ */
+public final class CharSlice implements CharSequence {
+    private final CharSequence source;
+    private final int start;
+    private final int end;
+
+    /**
+     * Creates a view of the characters in the given range.
+     *
+     * @param source The sequence to create a view of.
+     * @param start The start of the range (inclusive).
+     * @param end The end of the range (exclusive).
+     * @throws IndexOutOfBoundsException If the range is outside the sequence.
+     * @throws NullPointerException If the sequence is {@code null}.
+     */
+    public CharSlice(final CharSequence source, final int start, final int end) {
+        if (start < 0 || start > end || end > Objects.requireNonNull(source).length()) {
+            throw new IndexOutOfBoundsException("Range [" + start + ", " + end + ") is outside a sequence of length " + source.length());
+        }
+        this.source = source;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Returns the index of the first character
+     * of this slice in the underlying sequence.
+     *
+     * @return The start of this slice.
+     */
+    public int start() {
+        return start;
+    }
+
+    /**
+     * Returns the index after the last character
+     * of this slice in the underlying sequence.
+     *
+     * @return The end of this slice.
+     */
+    public int end() {
+        return end;
+    }
+
+    @Override
+    public int length() {
+        return end - start;
+    }
+
+    @Override
+    public char charAt(final int index) {
+        if (index < 0 || index >= end - start) {
+            throw new IndexOutOfBoundsException("Index " + index + " is outside a slice of length " + (end - start));
+        }
+        return source.charAt(start + index);
+    }
+
+    @Override
+    public CharSlice subSequence(final int start, final int end) {
+        if (start < 0 || start > end || end > this.end - this.start) {
+            throw new IndexOutOfBoundsException("Range [" + start + ", " + end + ") is outside a slice of length " + (this.end - this.start));
+        }
+        return new CharSlice(source, this.start + start, this.start + end);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final CharSlice slice = (CharSlice) o;
+        final int len = end - start;
+        if (len != slice.end - slice.start) {
+            return false;
+        }
+        for (int i = 0; i < len; ++i) {
+            if (source.charAt(start + i) != slice.source.charAt(slice.start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        // Same as String#hashCode
+        int hash = 0;
+        for (int i = start; i < end; ++i) {
+            hash = 31 * hash + source.charAt(i);
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return source instanceof String
+            ? ((String) source).substring(start, end)
+            : new StringBuilder(end - start).append(source, start, end).toString();
+    }
+}
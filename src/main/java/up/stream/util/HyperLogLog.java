@@ -0,0 +1,189 @@
+package up.stream.util;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * An estimator of the number of distinct elements
+ * which uses a fixed amount of memory.
+ *
+ * <p>The estimator keeps {@code 2^precision} registers of 6 bits.
+ * The relative standard error of the estimate is about
+ * {@code 1.04 / sqrt(2^precision)}, for example 0.8% for
+ * precision 14, which takes 12 KiB.</p>
+ *
+ * <p>Elements are told apart by their hash codes, which are
+ * spread over 64 bits. Elements with equal hash codes are counted
+ * once, so {@link #addHash(long)} should be used with a 64-bit hash
+ * function when there are billions of distinct elements.</p>
+ *
+ * <p>Estimators with the same precision can be merged, so
+ * parts of a sequence can be counted separately:</p>
+ *
+ * <pre><code>
+ * final HyperLogLog users = new HyperLogLog(14);
+ * for (final Path log : logs) {
+ *     final HyperLogLog part = new HyperLogLog(14);
+ *     Stream.lines(log).map(Request::parse).forEach(request -&gt; part.add(request.userId()));
+ *     users.merge(part);
+ * }
+ * System.out.println(users.estimate());
+ * </code></pre>
+ *
+ * <p>This class is not thread-safe.</p>
+ */
+public final class HyperLogLog {
+    private static final int MIN_PRECISION = 4;
+    private static final int MAX_PRECISION = 18;
+    private static final int REGISTER_BITS = 6;
+    private static final int REGISTERS_PER_WORD = Long.SIZE / REGISTER_BITS;
+    private static final long REGISTER_MASK = (1L << REGISTER_BITS) - 1;
+
+    private final int precision;
+    private final int registerCount;
+    // Registers are packed 10 to a word
+    private final long[] words;
+
+    /**
+     * Creates an empty estimator.
+     *
+     * @param precision The base 2 logarithm of the number of registers.
+     * @throws IllegalArgumentException If the precision is
+     * less than 4 or greater than 18.
+     */
+    public HyperLogLog(final int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Precision must be between " + MIN_PRECISION + " and " + MAX_PRECISION + ": " + precision);
+        }
+        this.precision = precision;
+        registerCount = 1 << precision;
+        words = new long[(registerCount + REGISTERS_PER_WORD - 1) / REGISTERS_PER_WORD];
+    }
+
+    /**
+     * Returns the precision of this estimator.
+     *
+     * @return The base 2 logarithm of the number of registers.
+     */
+    public int precision() {
+        return precision;
+    }
+
+    /**
+     * Adds an element to this estimator.
+     *
+     * @param elem The element to add.
+     * @throws NullPointerException If the element is {@code null}.
+     */
+    public void add(final Object elem) {
+        addHash(spread(Objects.requireNonNull(elem).hashCode()));
+    }
+
+    /**
+     * Adds an element to this estimator by its hash.
+     *
+     * <p>The bits of the hash should be uniformly distributed.</p>
+     *
+     * @param hash The 64-bit hash of the element.
+     */
+    public void addHash(final long hash) {
+        final int index = (int) (hash >>> (Long.SIZE - precision));
+        // The position of the first set bit after the index bits, capped by the bits left
+        final int rank = Math.min(Long.numberOfLeadingZeros(hash << precision), Long.SIZE - precision) + 1;
+        if (rank > register(index)) {
+            setRegister(index, rank);
+        }
+    }
+
+    /**
+     * Adds the elements counted by another
+     * estimator to this estimator.
+     *
+     * @param other The estimator to merge.
+     * @throws IllegalArgumentException If the precisions
+     * of the estimators are different.
+     * @throws NullPointerException If the other estimator is {@code null}.
+     */
+    public void merge(final HyperLogLog other) {
+        if (Objects.requireNonNull(other).precision != precision) {
+            throw new IllegalArgumentException("Precisions must be equal: " + precision + " and " + other.precision);
+        }
+        for (int i = 0; i < registerCount; ++i) {
+            final int rank = other.register(i);
+            if (rank > register(i)) {
+                setRegister(i, rank);
+            }
+        }
+    }
+
+    /**
+     * Estimates the number of distinct elements
+     * added to this estimator.
+     *
+     * @return The estimated number of distinct elements.
+     */
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (int i = 0; i < registerCount; ++i) {
+            final int rank = register(i);
+            sum += Double.longBitsToDouble((1023L - rank) << 52); // 2^-rank
+            if (rank == 0) {
+                ++zeros;
+            }
+        }
+        final double estimate = alpha() * registerCount * registerCount / sum;
+        if (estimate <= 2.5 * registerCount && zeros > 0) {
+            // Linear counting is more accurate for small cardinalities
+            return Math.round(registerCount * Math.log((double) registerCount / zeros));
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Removes all elements from this estimator.
+     */
+    public void clear() {
+        Arrays.fill(words, 0);
+    }
+
+    @Override
+    public String toString() {
+        return "HyperLogLog[precision=" + precision + ", estimate=" + estimate() + "]";
+    }
+
+    private int register(final int index) {
+        final int shift = (index % REGISTERS_PER_WORD) * REGISTER_BITS;
+        return (int) ((words[index / REGISTERS_PER_WORD] >>> shift) & REGISTER_MASK);
+    }
+
+    private void setRegister(final int index, final int rank) {
+        final int word = index / REGISTERS_PER_WORD;
+        final int shift = (index % REGISTERS_PER_WORD) * REGISTER_BITS;
+        words[word] = words[word] & ~(REGISTER_MASK << shift) | (long) rank << shift;
+    }
+
+    private double alpha() {
+        switch (registerCount) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / registerCount);
+        }
+    }
+
+    // The finalizer of MurmurHash3, so that similar hash codes get unrelated bits
+    private static long spread(final int hashCode) {
+        long hash = hashCode;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,166 @@
+package up.stream.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+/**
+ * Collectors which aren't available in {@link Collectors}.
+ *
+ * <p>The collectors combine partial results, so they can also
+ * be used with parallel {@link java.util.stream.Stream}s.</p>
+ */
+public final class MoreCollectors {
+    private MoreCollectors() {
+        // Only static methods
+    }
+
+    /**
+     * Returns a collector which passes each element
+     * to two collectors and merges their results.
+     *
+     * <p>Both collectors see each element in the same pass.</p>
+     *
+     * <pre><code>
+     * final double average = Stream.ofCollection(orders).collect(MoreCollectors.teeing(
+     *     Collectors.summingLong(Order::total),
+     *     Collectors.counting(),
+     *     (sum, count) -&gt; (double) sum / count
+     * ));
+     * </code></pre>
+     *
+     * @param first The first collector.
+     * @param second The second collector.
+     * @param merger The function which merges the results.
+     * @param <T> The type of the elements.
+     * @param <R1> The type of the result of the first collector.
+     * @param <R2> The type of the result of the second collector.
+     * @param <R> The type of the merged result.
+     * @return A collector of the merged result.
+     * @throws NullPointerException If a collector or the merger is {@code null}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, R1, R2, R> Collector<T, ?, R> teeing(
+        final Collector<? super T, ?, R1> first,
+        final Collector<? super T, ?, R2> second,
+        final BiFunction<? super R1, ? super R2, R> merger
+    ) {
+        Objects.requireNonNull(merger);
+        final Collector<T, ?, List<Object>> both = allOf(Arrays.asList(
+            (Collector<? super T, ?, Object>) Objects.requireNonNull(first),
+            (Collector<? super T, ?, Object>) Objects.requireNonNull(second)
+        ));
+        return Collectors.collectingAndThen(both, results -> merger.apply((R1) results.get(0), (R2) results.get(1)));
+    }
+
+    /**
+     * Returns a collector which passes each element to all
+     * collectors and returns their results in the same order.
+     *
+     * <p>All collectors see each element in the same pass, so
+     * several reductions need only one pass over a stream.</p>
+     *
+     * <pre><code>
+     * final List&lt;Object&gt; report = Stream.lines(accessLog).collect(MoreCollectors.allOf(Arrays.asList(
+     *     Collectors.counting(),
+     *     Collectors.summingLong(String::length),
+     *     MoreCollectors.frequencies()
+     * )));
+     * </code></pre>
+     *
+     * @param collectors The collectors to pass the elements to.
+     * @param <T> The type of the elements.
+     * @param <R> The common type of the results.
+     * @return A collector of the list of the results.
+     * @throws NullPointerException If the list or a collector is {@code null}.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public static <T, R> Collector<T, ?, List<R>> allOf(final List<? extends Collector<? super T, ?, ? extends R>> collectors) {
+        final int size = Objects.requireNonNull(collectors).size();
+        final Supplier<Object>[] suppliers = new Supplier[size];
+        final BiConsumer<Object, ? super T>[] accumulators = new BiConsumer[size];
+        final BinaryOperator<Object>[] combiners = new BinaryOperator[size];
+        final Function<Object, R>[] finishers = new Function[size];
+        final Set<Collector.Characteristics> characteristics = EnumSet.of(Collector.Characteristics.UNORDERED);
+        for (int i = 0; i < size; ++i) {
+            final Collector<? super T, Object, ? extends R> collector = (Collector<? super T, Object, ? extends R>) Objects.requireNonNull(collectors.get(i));
+            suppliers[i] = collector.supplier();
+            accumulators[i] = collector.accumulator();
+            combiners[i] = collector.combiner();
+            finishers[i] = (Function<Object, R>) collector.finisher();
+            if (!collector.characteristics().contains(Collector.Characteristics.UNORDERED)) {
+                characteristics.clear();
+            }
+        }
+        return Collector.of(
+            () -> {
+                final Object[] containers = new Object[size];
+                for (int i = 0; i < size; ++i) {
+                    containers[i] = suppliers[i].get();
+                }
+                return containers;
+            },
+            (containers, elem) -> {
+                // The accumulation of all collectors is fused into one loop
+                for (int i = 0; i < size; ++i) {
+                    ((BiConsumer<Object, T>) accumulators[i]).accept(containers[i], elem);
+                }
+            },
+            (left, right) -> {
+                for (int i = 0; i < size; ++i) {
+                    left[i] = combiners[i].apply(left[i], right[i]);
+                }
+                return left;
+            },
+            containers -> {
+                final List<R> res = new ArrayList<>(size);
+                for (int i = 0; i < size; ++i) {
+                    res.add(finishers[i].apply(containers[i]));
+                }
+                return res;
+            },
+            characteristics.toArray(new Collector.Characteristics[0])
+        );
+    }
+
+    /**
+     * Returns a collector which counts how many
+     * times each element occurs.
+     *
+     * <p>The counts are kept unboxed while the elements are collected.</p>
+     *
+     * @param <T> The type of the elements.
+     * @return A collector of the map from each element to its count.
+     */
+    public static <T> Collector<T, ?, Map<T, Long>> frequencies() {
+        return Collector.<T, Map<T, long[]>, Map<T, Long>>of(
+            HashMap::new,
+            (counts, elem) -> ++counts.computeIfAbsent(elem, key -> new long[1])[0],
+            (left, right) -> {
+                right.forEach((elem, count) -> left.merge(elem, count, (a, b) -> {
+                    a[0] += b[0];
+                    return a;
+                }));
+                return left;
+            },
+            counts -> {
+                final Map<T, Long> res = new HashMap<>(counts.size() * 4 / 3 + 1);
+                counts.forEach((elem, count) -> res.put(elem, count[0]));
+                return res;
+            },
+            Collector.Characteristics.UNORDERED
+        );
+    }
+}
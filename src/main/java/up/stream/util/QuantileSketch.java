@@ -0,0 +1,296 @@
+package up.stream.util;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.SplittableRandom;
+
+/**
+ * An estimator of the quantiles of a sequence of numbers
+ * which uses a bounded amount of memory.
+ *
+ * <p>The estimator is a KLL sketch. It keeps about {@code 3k}
+ * numbers no matter how many are added. The rank of an estimated
+ * quantile is usually within {@code 1.7 / k} of the requested
+ * rank, for example within 1% for the default {@code k} of 200.</p>
+ *
+ * <p>Estimators can be merged, so parts of a
+ * sequence can be processed separately:</p>
+ *
+ * <pre><code>
+ * final QuantileSketch latencies = new QuantileSketch();
+ * for (final Path log : logs) {
+ *     final QuantileSketch part = new QuantileSketch();
+ *     Stream.lines(log).map(Request::parse).forEach(request -&gt; part.add(request.latency()));
+ *     latencies.merge(part);
+ * }
+ * System.out.println("p99: " + latencies.quantile(0.99));
+ * </code></pre>
+ *
+ * <p>This class is not thread-safe.</p>
+ */
+public final class QuantileSketch {
+    private static final int DEFAULT_K = 200;
+    private static final int MIN_K = 8;
+    // Each level is this many times smaller than the level above it
+    private static final double LEVEL_RATIO = 2.0 / 3.0;
+
+    private final int k;
+    private final SplittableRandom random;
+    // The numbers on level h stand for 2^h numbers each
+    private double[][] levels;
+    private int[] sizes;
+    private int levelCount;
+    // The number of kept numbers and the number the levels may keep together
+    private int retained;
+    private int allowed;
+    private long count;
+    private double min;
+    private double max;
+
+    /**
+     * Creates an empty estimator with {@code k} equal to 200.
+     */
+    public QuantileSketch() {
+        this(DEFAULT_K);
+    }
+
+    /**
+     * Creates an empty estimator.
+     *
+     * @param k The accuracy parameter. Larger values give
+     *          more accurate quantiles and use more memory.
+     * @throws IllegalArgumentException If {@code k} is less than 8.
+     */
+    public QuantileSketch(final int k) {
+        if (k < MIN_K) {
+            throw new IllegalArgumentException("K must be at least " + MIN_K + ": " + k);
+        }
+        this.k = k;
+        random = new SplittableRandom();
+        levels = new double[1][k];
+        sizes = new int[1];
+        levelCount = 1;
+        retained = 0;
+        allowed = k;
+        count = 0;
+        min = Double.NaN;
+        max = Double.NaN;
+    }
+
+    /**
+     * Adds a number to this estimator.
+     *
+     * <p>{@code NaN} is ignored.</p>
+     *
+     * @param value The number to add.
+     */
+    public void add(final double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (count == 0 || value < min) {
+            min = value;
+        }
+        if (count == 0 || value > max) {
+            max = value;
+        }
+        ++count;
+        append(0, value);
+        compress();
+    }
+
+    /**
+     * Adds the numbers seen by another estimator
+     * to this estimator.
+     *
+     * @param other The estimator to merge.
+     * @throws NullPointerException If the other estimator is {@code null}.
+     */
+    public void merge(final QuantileSketch other) {
+        if (Objects.requireNonNull(other).count == 0) {
+            return;
+        }
+        if (count == 0 || other.min < min) {
+            min = other.min;
+        }
+        if (count == 0 || other.max > max) {
+            max = other.max;
+        }
+        count += other.count;
+        // Copied in case an estimator is merged into itself
+        final double[][] otherLevels = other.levels.clone();
+        final int[] otherSizes = other.sizes.clone();
+        final int otherLevelCount = other.levelCount;
+        for (int h = 0; h < otherLevelCount; ++h) {
+            for (int i = 0; i < otherSizes[h]; ++i) {
+                append(h, otherLevels[h][i]);
+            }
+        }
+        compress();
+    }
+
+    /**
+     * Returns the number of numbers added to this estimator.
+     *
+     * @return The number of added numbers.
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Returns the smallest number added to this estimator.
+     *
+     * @return The smallest number or {@code NaN}
+     * if no numbers have been added.
+     */
+    public double min() {
+        return min;
+    }
+
+    /**
+     * Returns the largest number added to this estimator.
+     *
+     * @return The largest number or {@code NaN}
+     * if no numbers have been added.
+     */
+    public double max() {
+        return max;
+    }
+
+    /**
+     * Estimates the number at the given rank.
+     *
+     * @param rank The rank between 0 and 1, for example 0.5 for the median.
+     * @return The estimated quantile or {@code NaN}
+     * if no numbers have been added.
+     * @throws IllegalArgumentException If the rank is not between 0 and 1.
+     */
+    public double quantile(final double rank) {
+        return quantiles(rank)[0];
+    }
+
+    /**
+     * Estimates the numbers at the given ranks.
+     *
+     * @param ranks The ranks between 0 and 1.
+     * @return The estimated quantiles in the order of the ranks.
+     * All of them are {@code NaN} if no numbers have been added.
+     * @throws IllegalArgumentException If a rank is not between 0 and 1.
+     * @throws NullPointerException If the ranks are {@code null}.
+     */
+    public double[] quantiles(final double... ranks) {
+        for (final double rank : Objects.requireNonNull(ranks)) {
+            if (!(rank >= 0 && rank <= 1)) {
+                throw new IllegalArgumentException("Rank must be between 0 and 1: " + rank);
+            }
+        }
+        final double[] res = new double[ranks.length];
+        if (count == 0) {
+            Arrays.fill(res, Double.NaN);
+            return res;
+        }
+
+        // Sorts the retained numbers together with their weights
+        final double[] values = new double[retained];
+        final long[] weights = new long[retained];
+        int len = 0;
+        for (int h = 0; h < levelCount; ++h) {
+            for (int i = 0; i < sizes[h]; ++i) {
+                values[len] = levels[h][i];
+                weights[len] = 1L << h;
+                ++len;
+            }
+        }
+        final Integer[] order = new Integer[retained];
+        for (int i = 0; i < retained; ++i) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+        final long[] cumulative = new long[retained];
+        long weight = 0;
+        for (int i = 0; i < retained; ++i) {
+            weight += weights[order[i]];
+            cumulative[i] = weight;
+        }
+
+        for (int q = 0; q < ranks.length; ++q) {
+            if (ranks[q] == 0) {
+                res[q] = min;
+            } else if (ranks[q] == 1) {
+                res[q] = max;
+            } else {
+                final double target = ranks[q] * weight;
+                int i = 0;
+                while (i < retained - 1 && cumulative[i] < target) {
+                    ++i;
+                }
+                res[q] = values[order[i]];
+            }
+        }
+        return res;
+    }
+
+    @Override
+    public String toString() {
+        return "QuantileSketch[k=" + k + ", count=" + count + ", min=" + min + ", max=" + max + "]";
+    }
+
+    private void append(final int level, final double value) {
+        if (level == levelCount) {
+            if (levelCount == levels.length) {
+                levels = Arrays.copyOf(levels, levelCount * 2);
+                sizes = Arrays.copyOf(sizes, levelCount * 2);
+            }
+            ++levelCount;
+            levels[level] = new double[capacity(level)];
+            allowed = 0;
+            for (int h = 0; h < levelCount; ++h) {
+                allowed += capacity(h);
+            }
+        }
+        if (sizes[level] == levels[level].length) {
+            levels[level] = Arrays.copyOf(levels[level], sizes[level] * 2);
+        }
+        levels[level][sizes[level]++] = value;
+        ++retained;
+    }
+
+    // Compacts the lowest full level while the sketch holds more numbers than
+    // all levels together may, so the levels below a full one can fill up first
+    private void compress() {
+        while (retained >= allowed) {
+            int level = 0;
+            while (sizes[level] < capacity(level)) {
+                ++level;
+            }
+            compact(level);
+        }
+    }
+
+    // Sorts the level and promotes every other number, so each promoted number
+    // stands for two. The random offset keeps the ranks unbiased
+    private void compact(final int level) {
+        final double[] items = levels[level];
+        final int size = sizes[level];
+        Arrays.sort(items, 0, size);
+        // An odd number out stays on this level
+        final int end = size & ~1;
+        for (int i = random.nextBoolean() ? 1 : 0; i < end; i += 2) {
+            append(level + 1, items[i]);
+        }
+        if (end < size) {
+            items[0] = items[size - 1];
+            sizes[level] = 1;
+        } else {
+            sizes[level] = 0;
+        }
+        retained -= size - sizes[level];
+    }
+
+    // The top level may hold k numbers and each level below it 2/3 as many
+    private int capacity(final int level) {
+        final int depth = levelCount - 1 - level;
+        return Math.max((int) Math.ceil(k * Math.pow(LEVEL_RATIO, depth)), 2);
+    }
+}
@@ -0,0 +1,163 @@
+package up.stream;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Emits Flight Recorder events. The shape of a pipeline is
+// only computed when the terminal event is going to be recorded.
+final class PipelineEvents {
+    // Buffers smaller than this aren't worth an event
+    private static final long LARGE_BUFFER = 1 << 20;
+
+    private PipelineEvents() {
+        throw new UnsupportedOperationException("This class cannot be instantiated");
+    }
+
+    static Terminal beginTerminal() {
+        final Terminal event = new Terminal();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    static void endTerminal(final Terminal event, final String operation, final Object stream, final long elements) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            final List<String> stages = stages(stream);
+            event.operation = operation;
+            event.source = stages.get(0);
+            event.shape = String.join(" -> ", stages);
+            event.elements = elements;
+            event.commit();
+        }
+    }
+
+    static void uniqueGrowth(final Object stage, final int size) {
+        final UniqueGrowth event = new UniqueGrowth();
+        if (event.shouldCommit()) {
+            event.stage = stage.getClass().getSimpleName();
+            event.size = size;
+            event.commit();
+        }
+    }
+
+    static void recopy(final Object stage, final long cycle) {
+        final Recopy event = new Recopy();
+        if (event.shouldCommit()) {
+            event.stage = stage.getClass().getSimpleName();
+            event.cycle = cycle;
+            event.commit();
+        }
+    }
+
+    static void bufferAllocation(final Object stage, final long bytes, final boolean isMapped) {
+        if (bytes < LARGE_BUFFER) {
+            return;
+        }
+        final BufferAllocation event = new BufferAllocation();
+        if (event.shouldCommit()) {
+            event.stage = stage.getClass().getSimpleName();
+            event.bytes = bytes;
+            event.isMapped = isMapped;
+            event.commit();
+        }
+    }
+
+    // Follows the first stream field of each stage back to the source
+    private static List<String> stages(final Object stream) {
+        final List<String> res = new ArrayList<>();
+        for (Object curr = stream; curr != null; curr = upstream(curr)) {
+            res.add(0, curr.getClass().getSimpleName());
+        }
+        return res;
+    }
+
+    private static Object upstream(final Object stage) {
+        for (final Field field : stage.getClass().getDeclaredFields()) {
+            if (Stream.class.isAssignableFrom(field.getType()) || BiStream.class.isAssignableFrom(field.getType())) {
+                try {
+                    field.setAccessible(true);
+                    return field.get(stage);
+                } catch (final ReflectiveOperationException | RuntimeException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Name("up.stream.Terminal")
+    @Label("Stream Terminal Operation")
+    @Description("A terminal operation of a stream")
+    @Category("UpStream")
+    static final class Terminal extends Event {
+        @Label("Operation")
+        String operation;
+
+        @Label("Source")
+        String source;
+
+        @Label("Shape")
+        @Description("The stages of the stream from its source to the stage the operation was called on")
+        String shape;
+
+        @Label("Elements")
+        @Description("The number of elements the operation pulled")
+        long elements;
+    }
+
+    @Name("up.stream.UniqueGrowth")
+    @Label("Unique Set Growth")
+    @Description("The set of elements seen by unique() has grown past a threshold")
+    @Category("UpStream")
+    static final class UniqueGrowth extends Event {
+        @Label("Stage")
+        String stage;
+
+        @Label("Size")
+        int size;
+    }
+
+    @Name("up.stream.Recopy")
+    @Label("Stream Recopy")
+    @Description("A stream was copied to iterate over its elements again")
+    @Category("UpStream")
+    static final class Recopy extends Event {
+        @Label("Stage")
+        String stage;
+
+        @Label("Cycle")
+        long cycle;
+    }
+
+    @Name("up.stream.BufferAllocation")
+    @Label("Stream Buffer Allocation")
+    @Description("A stream has allocated or mapped a large buffer")
+    @Category("UpStream")
+    @StackTrace(true)
+    static final class BufferAllocation extends Event {
+        @Label("Stage")
+        String stage;
+
+        @Label("Size")
+        @DataAmount
+        long bytes;
+
+        @Label("Mapped")
+        boolean isMapped;
+    }
+}
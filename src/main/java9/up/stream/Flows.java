@@ -0,0 +1,79 @@
+package up.stream;
+
+import java.util.Objects;
+import java.util.concurrent.Flow;
+
+/**
+ * Adapters between streams and the
+ * {@link java.util.concurrent.Flow reactive streams}
+ * of the standard library.
+ *
+ * <p>Both adapters respect backpressure: elements are
+ * computed only when they are requested by a subscriber
+ * and elements are requested from a publisher only when
+ * there is space for them in a bounded buffer.</p>
+ *
+ * <p>The adapters need Java 9 or newer, so they are
+ * packaged into a separate JAR with the {@code flows}
+ * classifier, next to the main JAR.</p>
+ *
+ * @see Stream
+ */
+public final class Flows {
+    private Flows() {
+        throw new UnsupportedOperationException("This class cannot be instantiated");
+    }
+
+    /**
+     * Creates a publisher of the elements of the stream.
+     *
+     * <p>Each subscriber receives the elements of a
+     * {@linkplain Stream#copy() copy} of the stream. The
+     * elements are computed on the thread which requests
+     * them, only as many as have been requested. The copy
+     * is {@linkplain Stream#close() closed} when it ends,
+     * when it throws an exception or when the subscription
+     * is cancelled.</p>
+     *
+     * <pre><code>
+     * final Flow.Publisher&lt;User&gt; users = Flows.toPublisher(
+     *     Stream.ofCollection(ids).map(repository::load)
+     * );
+     * </code></pre>
+     *
+     * @param stream The stream to publish the elements of.
+     * @param <T> The type of the elements.
+     * @return A publisher of the elements of the stream.
+     * @throws NullPointerException If the stream is {@code null}.
+     */
+    public static <T> Flow.Publisher<T> toPublisher(final Stream<T> stream) {
+        return new StreamPublisher<>(Objects.requireNonNull(stream));
+    }
+
+    /**
+     * Creates a new stream of the elements published by the publisher.
+     *
+     * <p>The stream subscribes to the publisher when its first element
+     * is requested. It requests up to {@code bufferSize} elements at a
+     * time and requests more once three quarters of them have been
+     * processed. While no element is available, the thread requesting
+     * an element waits for one. An error signalled by the publisher is
+     * rethrown when the element it was signalled instead of is
+     * requested. The subscription is cancelled when the stream is
+     * {@linkplain Stream#close() closed}.</p>
+     *
+     * @param publisher The publisher to subscribe to.
+     * @param bufferSize The maximum number of elements
+     *                   which can wait to be processed.
+     * @param <T> The type of the elements.
+     * @return A stream of the published elements.
+     * @throws IllegalArgumentException If {@code bufferSize} is less than 1.
+     * @throws NullPointerException If the publisher is {@code null}.
+     */
+    public static <T> Stream<T> fromPublisher(final Flow.Publisher<? extends T> publisher, final int bufferSize) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("Buffer size must be positive: " + bufferSize);
+        }
+        return new StreamOfPublisher<>(Objects.requireNonNull(publisher), bufferSize);
+    }
+}
@@ -0,0 +1,132 @@
+package up.stream;
+
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+
+final class StreamOfPublisher<T> extends Stream<T> {
+    private static final Object END = new Object();
+
+    private final Flow.Publisher<? extends T> publisher;
+    private final int bufferSize;
+    private final int replenishLimit;
+    // Bounded by the outstanding demand
+    private final BlockingQueue<Object> queue;
+    private volatile Flow.Subscription subscription;
+    private volatile boolean isClosed;
+    private boolean hasSubscribed;
+    private boolean hasEnded;
+    private int consumed;
+
+    StreamOfPublisher(final Flow.Publisher<? extends T> publisher, final int bufferSize) {
+        this.publisher = publisher;
+        this.bufferSize = bufferSize;
+        replenishLimit = Math.max(1, bufferSize - bufferSize / 4);
+        queue = new LinkedBlockingQueue<>();
+        subscription = null;
+        isClosed = false;
+        hasSubscribed = false;
+        hasEnded = false;
+        consumed = 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected Optional<T> next() {
+        if (hasEnded) {
+            return Optional.empty();
+        }
+        if (!hasSubscribed) {
+            hasSubscribed = true;
+            publisher.subscribe(new QueueSubscriber());
+        }
+
+        final Object item;
+        try {
+            item = queue.take();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new CancellationException("Interrupted while waiting for the next element");
+        }
+
+        if (item == END) {
+            hasEnded = true;
+            return Optional.empty();
+        }
+        if (item instanceof Failure) {
+            hasEnded = true;
+            final Throwable cause = ((Failure) item).cause;
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+
+        if (++consumed == replenishLimit) {
+            consumed = 0;
+            subscription.request(replenishLimit);
+        }
+        return Optional.of((T) item);
+    }
+
+    @Override
+    protected Stream<T> copy() {
+        return new StreamOfPublisher<>(publisher, bufferSize);
+    }
+
+    @Override
+    protected void close() {
+        hasEnded = true;
+        isClosed = true;
+        final Flow.Subscription curr = subscription;
+        if (curr != null) {
+            curr.cancel();
+        }
+    }
+
+    private final class QueueSubscriber implements Flow.Subscriber<T> {
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            if (StreamOfPublisher.this.subscription != null) {
+                subscription.cancel();
+                return;
+            }
+            StreamOfPublisher.this.subscription = subscription;
+            // The stream might have been closed before it subscribed
+            if (isClosed) {
+                subscription.cancel();
+            } else {
+                subscription.request(bufferSize);
+            }
+        }
+
+        @Override
+        public void onNext(final T item) {
+            queue.add(item);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            queue.add(new Failure(throwable));
+        }
+
+        @Override
+        public void onComplete() {
+            queue.add(END);
+        }
+    }
+
+    private static final class Failure {
+        private final Throwable cause;
+
+        private Failure(final Throwable cause) {
+            this.cause = cause;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package up.stream;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+
+final class StreamPublisher<T> implements Flow.Publisher<T> {
+    private final Stream<T> stream;
+
+    StreamPublisher(final Stream<T> stream) {
+        this.stream = stream;
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber);
+        subscriber.onSubscribe(new StreamSubscription<>(stream.copy(), subscriber));
+    }
+
+    private static final class StreamSubscription<T> implements Flow.Subscription {
+        private final Stream<T> stream;
+        private final Flow.Subscriber<? super T> subscriber;
+        // Outstanding demand, also used to elect the single thread which emits
+        private final AtomicLong demand;
+        private volatile boolean isCancelled;
+        private volatile Throwable invalidRequest;
+
+        private StreamSubscription(final Stream<T> stream, final Flow.Subscriber<? super T> subscriber) {
+            this.stream = stream;
+            this.subscriber = subscriber;
+            demand = new AtomicLong();
+            isCancelled = false;
+            invalidRequest = null;
+        }
+
+        @Override
+        public void request(final long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("Requested a non-positive number of elements: " + n);
+            }
+            if (addDemand(n <= 0 ? 1 : n) == 0) {
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            isCancelled = true;
+            // Wakes the emitting thread, or elects this one to close the stream
+            if (addDemand(1) == 0) {
+                drain();
+            }
+        }
+
+        private long addDemand(final long n) {
+            while (true) {
+                final long curr = demand.get();
+                if (curr == Long.MAX_VALUE) {
+                    return curr;
+                }
+                final long next = curr + n;
+                if (demand.compareAndSet(curr, next < 0 ? Long.MAX_VALUE : next)) {
+                    return curr;
+                }
+            }
+        }
+
+        private void drain() {
+            long requested = demand.get();
+            long emitted = 0;
+            while (true) {
+                while (emitted < requested) {
+                    if (isCancelled || invalidRequest != null) {
+                        terminate(invalidRequest);
+                        return;
+                    }
+
+                    final Optional<T> elem;
+                    try {
+                        elem = stream.next();
+                    } catch (final Throwable t) {
+                        terminate(t);
+                        return;
+                    }
+                    if (!elem.isPresent()) {
+                        terminate(null);
+                        return;
+                    }
+                    subscriber.onNext(elem.get());
+                    ++emitted;
+                }
+
+                if (isCancelled || invalidRequest != null) {
+                    terminate(invalidRequest);
+                    return;
+                }
+                requested = demand.addAndGet(-emitted);
+                emitted = 0;
+                if (requested == 0) {
+                    return;
+                }
+            }
+        }
+
+        private void terminate(final Throwable error) {
+            // The demand is never released, so no thread drains again
+            final boolean shouldSignal = !isCancelled;
+            isCancelled = true;
+            Throwable failure = error;
+            try {
+                stream.close();
+            } catch (final Throwable t) {
+                if (failure == null) {
+                    failure = t;
+                }
+            }
+
+            if (!shouldSignal) {
+                return;
+            }
+            if (failure == null) {
+                subscriber.onComplete();
+            } else {
+                subscriber.onError(failure);
+            }
+        }
+    }
+}